@@ -1,11 +1,10 @@
 package de.robotricker.transportpipes;
 
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -16,97 +15,109 @@ import org.bukkit.entity.Player;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import de.robotricker.transportpipes.duct.Duct;
+import de.robotricker.transportpipes.config.GeneralConf;
 import de.robotricker.transportpipes.duct.manager.GlobalDuctManager;
+import de.robotricker.transportpipes.duct.manager.TickGroup;
 import de.robotricker.transportpipes.location.BlockLocation;
 import de.robotricker.transportpipes.log.LoggerService;
 import de.robotricker.transportpipes.log.SentryService;
+import de.robotricker.transportpipes.utils.DelayedTaskQueue;
 import de.robotricker.transportpipes.utils.WorldUtils;
 
-public class ThreadService extends Thread {
+/**
+ * The main TransportPipes thread. It runs the async tasks and ticks all worlds which are not ticked by a separate
+ * {@link TickWorker} of their own world tick group.
+ */
+public class ThreadService extends TickWorker {
 
-    private final Map<Runnable, Long> tasks;
+    private final DelayedTaskQueue tasks;
 
-    private LoggerService logger;
-    private SentryService sentry;
-    private GlobalDuctManager globalDuctManager;
     private PlayerSettingsService playerSettingsService;
 
-    private boolean running = false;
-    private int preferredTPS = 10;
-    private int currentTPS = 0;
+    /**
+     * the workers of the configured world tick groups
+     */
+    private final List<TickWorker> worldWorkers;
 
     @Inject
-    public ThreadService(JavaPlugin plugin, LoggerService logger, SentryService sentry, GlobalDuctManager globalDuctManager, PlayerSettingsService playerSettingsService) {
-        super("TransportPipes-Thread");
-        this.logger = logger;
-        this.sentry = sentry;
-        this.globalDuctManager = globalDuctManager;
+    public ThreadService(JavaPlugin plugin, LoggerService logger, SentryService sentry, GlobalDuctManager globalDuctManager, PlayerSettingsService playerSettingsService, GeneralConf generalConf) {
+        super("TransportPipes-Thread", globalDuctManager.getDefaultTickGroup(), logger, sentry, globalDuctManager, generalConf);
         this.playerSettingsService = playerSettingsService;
-        this.tasks = Collections.synchronizedMap(new LinkedHashMap<>());
+        this.tasks = new DelayedTaskQueue();
+        this.worldWorkers = new ArrayList<>();
+
+        List<TickGroup> tickGroups = new ArrayList<>();
+        tickGroups.add(globalDuctManager.getDefaultTickGroup());
+        List<List<String>> worldTickGroups = generalConf.getWorldTickGroups();
+        for (int i = 0; i < worldTickGroups.size(); i++) {
+            TickGroup tickGroup = new TickGroup("group-" + (i + 1), new HashSet<>(worldTickGroups.get(i)));
+            tickGroups.add(tickGroup);
+            worldWorkers.add(new TickWorker("TransportPipes-Thread-" + tickGroup.getName(), tickGroup, logger, sentry, globalDuctManager, generalConf));
+        }
+        globalDuctManager.setTickGroups(tickGroups);
 
         Bukkit.getScheduler().runTaskTimer(plugin, (Runnable) this::tickDuctSpawnAndDespawn, 20L, 20L);
+        Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            getTickRateController().recordMainThreadTick();
+            for (TickWorker worldWorker : worldWorkers) {
+                worldWorker.getTickRateController().recordMainThreadTick();
+            }
+        }, 1L, 1L);
     }
 
     @Override
-    public void run() {
-        logger.info("Started ThreadService");
-        running = true;
-        sentry.addTag("thread", getName());
-        sentry.injectThread(this);
-
-        long lastTick = System.currentTimeMillis();
-        long lastSec = lastTick;
-        int tpsCounter = 0;
-        while (running) {
-            long currentTick = System.currentTimeMillis();
-            long diff = currentTick - lastTick;
-            if (diff >= 1000f / preferredTPS) {
-
-                tick();
-
-                tpsCounter++;
-                lastTick = currentTick;
-
-                if (currentTick - lastSec >= 1000) {
-                    currentTPS = tpsCounter;
-                    tpsCounter = 0;
-                    lastSec = currentTick;
-                    logger.debug("TPS: " + currentTPS);
-                }
+    public synchronized void start() {
+        super.start();
+        for (TickWorker worldWorker : worldWorkers) {
+            worldWorker.start();
+        }
+    }
 
-            } else {
-                long waitTime = (long) (1000f / preferredTPS - diff);
-                try {
-                    sleep(waitTime);
-                } catch (InterruptedException e) {
-                    logger.error("ThreadService was terminated while sleeping!", e);
-                }
+    /**
+     * stops this thread and the workers of the world tick groups. Waits until the workers are stopped.
+     */
+    @Override
+    public void stopRunning() {
+        super.stopRunning();
+        for (TickWorker worldWorker : worldWorkers) {
+            worldWorker.stopRunning();
+        }
+        for (TickWorker worldWorker : worldWorkers) {
+            try {
+                worldWorker.join();
+            } catch (InterruptedException e) {
+                logger.error("Interrupted while waiting for " + worldWorker.getName() + " to stop!", e);
             }
         }
-        logger.info("Stopped ThreadService");
     }
 
-    public Map<Runnable, Long> getTasks() {
+    public DelayedTaskQueue getTasks() {
         return tasks;
     }
 
-    private void tick() {
-        //schedule tasks
-        Set<Runnable> taskSet = tasks.keySet();
-        synchronized (tasks) {
-            Iterator<Runnable> taskIt = taskSet.iterator();
-            while (taskIt.hasNext()) {
-                Runnable task = taskIt.next();
-                if (tasks.get(task) > 1) {
-                    tasks.put(task, tasks.get(task) - 1);
-                } else {
-                    taskIt.remove();
-                    task.run();
-                }
+    public List<TickWorker> getWorldWorkers() {
+        return Collections.unmodifiableList(worldWorkers);
+    }
+
+    /**
+     * the worker which ticks the given world
+     */
+    public TickWorker getTickWorker(World world) {
+        TickGroup tickGroup = globalDuctManager.getTickGroup(world);
+        for (TickWorker worldWorker : worldWorkers) {
+            if (worldWorker.getTickGroup() == tickGroup) {
+                return worldWorker;
             }
         }
+        return this;
+    }
+
+    @Override
+    protected void tick() {
+        //run scheduled tasks
+        tasks.runDueTasks();
 
-        globalDuctManager.tick();
+        super.tick();
     }
 
     /**
@@ -147,24 +158,4 @@ public class ThreadService extends Thread {
         }
     }
 
-    public int getCurrentTPS() {
-        return currentTPS;
-    }
-
-    public int getPreferredTPS() {
-        return preferredTPS;
-    }
-
-    public void setPreferredTPS(int preferredTPS) {
-        this.preferredTPS = preferredTPS;
-    }
-
-    public boolean isRunning() {
-        return running;
-    }
-
-    public void stopRunning() {
-        running = false;
-    }
-
 }
@@ -0,0 +1,92 @@
+package de.robotricker.transportpipes;
+
+/**
+ * Moves the tps of the TransportPipes thread between the configured bounds depending on the load of the TransportPipes
+ * thread and the main thread. The pipe simulation is tuned for {@link #BASE_TPS}, at lower tps every tick simulates
+ * more time (see {@link #getTickScale(int)}), so the item throughput stays the same.
+ */
+public class TickRateController {
+
+    /**
+     * the tps all item speeds and tick delays are tuned for
+     */
+    public static final int BASE_TPS = 10;
+
+    private static final long MAIN_THREAD_TICK_NANOS = 50_000_000L;
+    /**
+     * the tps gets halved if a tick takes more than this part of the tick interval
+     */
+    private static final double HIGH_LOAD = 0.8d;
+    /**
+     * the tps gets doubled if a tick would still take less than this part of the tick interval afterwards
+     */
+    private static final double LOW_LOAD = 0.5d;
+    /**
+     * the tps gets halved if the main thread ticks this much slower than 20 tps
+     */
+    private static final double MAIN_THREAD_LAG = 0.1d;
+    /**
+     * the weight of a new sample in the moving averages
+     */
+    private static final double SMOOTHING = 0.2d;
+
+    private volatile double tickLoad;
+    private volatile double mainThreadLoad;
+    private long lastMainThreadTick;
+
+    /**
+     * has to be called by the tick thread after every tick
+     */
+    public void recordTick(long durationNanos, long tickIntervalNanos) {
+        tickLoad += (durationNanos / (double) tickIntervalNanos - tickLoad) * SMOOTHING;
+    }
+
+    /**
+     * has to be called by the main thread every server tick
+     */
+    public void recordMainThreadTick() {
+        long now = System.nanoTime();
+        if (lastMainThreadTick != 0) {
+            mainThreadLoad += ((now - lastMainThreadTick) / (double) MAIN_THREAD_TICK_NANOS - 1d - mainThreadLoad) * SMOOTHING;
+        }
+        lastMainThreadTick = now;
+    }
+
+    /**
+     * calculates the tps the TransportPipes thread should run at next
+     */
+    public int nextTPS(int currentTPS, int minTPS, int maxTPS) {
+        int tps = currentTPS;
+        if (tickLoad > HIGH_LOAD || mainThreadLoad > MAIN_THREAD_LAG) {
+            tps = currentTPS / 2;
+        } else if (tickLoad * 2 < LOW_LOAD && mainThreadLoad < MAIN_THREAD_LAG / 2) {
+            tps = currentTPS * 2;
+        }
+        tps = Math.max(minTPS, Math.min(maxTPS, Math.max(1, tps)));
+        // the ticks keep their duration, but the interval they are measured against changes
+        tickLoad = tickLoad * tps / currentTPS;
+        return tps;
+    }
+
+    /**
+     * the average time a tick of the TransportPipes thread takes relative to its tick interval
+     */
+    public double getTickLoad() {
+        return tickLoad;
+    }
+
+    /**
+     * the average amount by which the main thread is slower than 20 tps, 0 if it keeps up
+     */
+    public double getMainThreadLoad() {
+        return Math.max(0d, mainThreadLoad);
+    }
+
+    /**
+     * the amount of base ticks one tick at the given tps simulates
+     */
+    public static double getTickScale(int tps) {
+        return BASE_TPS / (double) tps;
+    }
+
+}
@@ -0,0 +1,213 @@
+package de.robotricker.transportpipes;
+
+import de.robotricker.transportpipes.config.GeneralConf;
+import de.robotricker.transportpipes.duct.manager.GlobalDuctManager;
+import de.robotricker.transportpipes.duct.manager.TickGroup;
+import de.robotricker.transportpipes.log.LoggerService;
+import de.robotricker.transportpipes.log.SentryService;
+import de.robotricker.transportpipes.utils.TickDurationHistogram;
+
+/**
+ * A thread which ticks the ducts of one {@link TickGroup} at a fixed rate. Every worker has its own tps accounting,
+ * so a slow group of worlds only slows down itself.
+ */
+public class TickWorker extends Thread {
+
+    /**
+     * the maximum amount of ticks which are run back to back with {@link CatchUpPolicy#CATCH_UP}
+     */
+    private static final int MAX_CATCH_UP_TICKS = 20;
+
+    protected final LoggerService logger;
+    protected final SentryService sentry;
+    protected final GlobalDuctManager globalDuctManager;
+    protected final GeneralConf generalConf;
+    private final TickGroup tickGroup;
+
+    private final TickDurationHistogram tickDurations;
+    private final TickRateController tickRateController;
+
+    private volatile boolean running = false;
+    private volatile int preferredTPS = 10;
+    private volatile int currentTPS = 0;
+    private volatile long overrunTicks = 0;
+    private volatile long skippedTicks = 0;
+    private volatile long lastOverrunNanos = 0;
+
+    public TickWorker(String name, TickGroup tickGroup, LoggerService logger, SentryService sentry, GlobalDuctManager globalDuctManager, GeneralConf generalConf) {
+        super(name);
+        this.tickGroup = tickGroup;
+        this.logger = logger;
+        this.sentry = sentry;
+        this.globalDuctManager = globalDuctManager;
+        this.generalConf = generalConf;
+        this.tickDurations = new TickDurationHistogram();
+        this.tickRateController = new TickRateController();
+    }
+
+    @Override
+    public synchronized void start() {
+        // set before the thread starts, so stopping it right away can't be missed
+        running = true;
+        super.start();
+    }
+
+    @Override
+    public void run() {
+        logger.info("Started " + getName());
+        sentry.addTag("thread", getName());
+        sentry.injectThread(this);
+
+        CatchUpPolicy catchUpPolicy = generalConf.getTickCatchUpPolicy();
+        long nextTick = System.nanoTime();
+        long lastSec = nextTick;
+        int tpsCounter = 0;
+        while (running) {
+            long tickInterval = 1_000_000_000L / preferredTPS;
+            long now = System.nanoTime();
+            if (now - nextTick < 0) {
+                long waitTime = nextTick - now;
+                try {
+                    sleep(waitTime / 1_000_000L, (int) (waitTime % 1_000_000L));
+                } catch (InterruptedException e) {
+                    logger.error(getName() + " was terminated while sleeping!", e);
+                }
+                continue;
+            }
+
+            // slower ticks simulate more time, so the items move at the same speed
+            tickGroup.setTickScale(TickRateController.getTickScale(preferredTPS));
+            tickGroup.advanceTime();
+            tick();
+
+            long tickEnd = System.nanoTime();
+            long tickDuration = tickEnd - now;
+            tickDurations.record(tickDuration);
+            tickRateController.recordTick(tickDuration, tickInterval);
+            tpsCounter++;
+
+            if (tickDuration > tickInterval) {
+                overrunTicks++;
+                lastOverrunNanos = tickDuration;
+                logger.debug(getName() + ": Tick took " + tickDuration / 1_000_000L + "ms (" + tickInterval / 1_000_000L + "ms allowed)");
+            }
+
+            // the ticks are scheduled on a fixed grid, so sleeping inaccurately doesn't add up over time
+            nextTick += tickInterval;
+            long behind = tickEnd - nextTick;
+            if (behind > 0) {
+                if (catchUpPolicy == CatchUpPolicy.SLOW) {
+                    // the simulation slows down and continues from now on
+                    nextTick = tickEnd;
+                } else {
+                    long missedTicks = behind / tickInterval;
+                    long droppedTicks = catchUpPolicy == CatchUpPolicy.SKIP ? missedTicks : Math.max(0, missedTicks - MAX_CATCH_UP_TICKS);
+                    if (catchUpPolicy == CatchUpPolicy.SKIP && behind % tickInterval != 0) {
+                        // the next tick starts at the next grid point instead of now
+                        droppedTicks++;
+                    }
+                    skippedTicks += droppedTicks;
+                    nextTick += droppedTicks * tickInterval;
+                }
+            }
+
+            if (tickEnd - lastSec >= 1_000_000_000L) {
+                currentTPS = tpsCounter;
+                tpsCounter = 0;
+                lastSec = tickEnd;
+                catchUpPolicy = generalConf.getTickCatchUpPolicy();
+                if (generalConf.isAdaptiveTPS()) {
+                    int nextTPS = tickRateController.nextTPS(preferredTPS, generalConf.getMinTPS(), generalConf.getMaxTPS());
+                    if (nextTPS != preferredTPS) {
+                        logger.debug(getName() + ": Changing TPS from " + preferredTPS + " to " + nextTPS + " (tick load: " + tickRateController.getTickLoad() + ", main thread lag: " + tickRateController.getMainThreadLoad() + ")");
+                        preferredTPS = nextTPS;
+                    }
+                }
+                logger.debug(getName() + ": TPS: " + currentTPS);
+            }
+        }
+        logger.info("Stopped " + getName());
+    }
+
+    /**
+     * ticks all ducts of the tick group of this worker
+     */
+    protected void tick() {
+        globalDuctManager.tick(tickGroup);
+    }
+
+    public TickGroup getTickGroup() {
+        return tickGroup;
+    }
+
+    /**
+     * the durations of all ticks so far
+     */
+    public TickDurationHistogram getTickDurations() {
+        return tickDurations;
+    }
+
+    /**
+     * the amount of ticks which took longer than one tick interval
+     */
+    public long getOverrunTicks() {
+        return overrunTicks;
+    }
+
+    /**
+     * the amount of ticks which were dropped to keep up with the preferred tps
+     */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    /**
+     * the duration of the last tick which took longer than one tick interval in nanoseconds
+     */
+    public long getLastOverrunNanos() {
+        return lastOverrunNanos;
+    }
+
+    public TickRateController getTickRateController() {
+        return tickRateController;
+    }
+
+    public int getCurrentTPS() {
+        return currentTPS;
+    }
+
+    public int getPreferredTPS() {
+        return preferredTPS;
+    }
+
+    public void setPreferredTPS(int preferredTPS) {
+        this.preferredTPS = preferredTPS;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void stopRunning() {
+        running = false;
+    }
+
+    /**
+     * what happens if the ticks fall behind the preferred tps
+     */
+    public enum CatchUpPolicy {
+        /**
+         * the missed ticks are dropped
+         */
+        SKIP,
+        /**
+         * the missed ticks are run back to back until the thread caught up
+         */
+        CATCH_UP,
+        /**
+         * the missed ticks are not run, the next tick starts right away and the schedule continues from there
+         */
+        SLOW
+    }
+
+}
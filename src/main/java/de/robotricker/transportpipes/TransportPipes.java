@@ -201,7 +201,7 @@ public class TransportPipes extends JavaPlugin {
     }
 
     public void runTaskAsync(Runnable runnable, long delay) {
-        thread.getTasks().put(runnable, delay);
+        thread.getTasks().add(runnable, delay);
     }
 
     public Injector getInjector() {
@@ -1,6 +1,6 @@
 package de.robotricker.transportpipes.api;
 
-import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.Map;
 
 import javax.inject.Inject;
 
@@ -21,6 +21,7 @@ import de.robotricker.transportpipes.duct.types.DuctType;
 import de.robotricker.transportpipes.listener.TPContainerListener;
 import de.robotricker.transportpipes.location.BlockLocation;
 import de.robotricker.transportpipes.location.TPDirection;
+import de.robotricker.transportpipes.utils.TickDurationHistogram;
 import de.robotricker.transportpipes.utils.WorldUtils;
 
 public class TransportPipesAPI {
@@ -43,7 +44,7 @@ public class TransportPipesAPI {
         instance = this;
     }
     
-    public ConcurrentSkipListMap<BlockLocation, Duct> getDuctsInWorld(World world) {
+    public Map<BlockLocation, Duct> getDuctsInWorld(World world) {
         return globalDuctManager.getDucts(world);
     }
 
@@ -124,10 +125,59 @@ public class TransportPipesAPI {
         return threadService.getCurrentTPS();
     }
 
+    /**
+     * the tps of the thread which ticks the given world
+     */
+    public int getTPS(World world) {
+        return threadService.getTickWorker(world).getCurrentTPS();
+    }
+
+    /**
+     * the amount of tasks which were queued on the TransportPipes thread so far
+     */
+    public long getQueuedTaskCount() {
+        return threadService.getTasks().getQueuedTaskCount();
+    }
+
+    /**
+     * the amount of tasks which were run on the TransportPipes thread so far
+     */
+    public long getExecutedTaskCount() {
+        return threadService.getTasks().getExecutedTaskCount();
+    }
+
+    /**
+     * the amount of tasks which were run later than they were scheduled for on the TransportPipes thread
+     */
+    public long getLateTaskCount() {
+        return threadService.getTasks().getLateTaskCount();
+    }
+
     public int getPreferredTPS() {
         return threadService.getPreferredTPS();
     }
 
+    /**
+     * the durations of all ticks of the TransportPipes thread so far
+     */
+    public TickDurationHistogram getTickDurations() {
+        return threadService.getTickDurations();
+    }
+
+    /**
+     * the amount of ticks which took longer than one tick interval
+     */
+    public long getOverrunTickCount() {
+        return threadService.getOverrunTicks();
+    }
+
+    /**
+     * the amount of ticks which were dropped because the TransportPipes thread fell behind
+     */
+    public long getSkippedTickCount() {
+        return threadService.getSkippedTicks();
+    }
+
     public void updateVanillaContainerBlock(Block block, boolean placed) {
         tpContainerListener.updateContainerBlock(block, placed, true);
     }
@@ -1,12 +1,15 @@
 package de.robotricker.transportpipes.config;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 import javax.inject.Inject;
 
 import org.bukkit.plugin.Plugin;
 
 import de.robotricker.transportpipes.ResourcepackService;
+import de.robotricker.transportpipes.TickWorker;
 
 public class GeneralConf extends Conf {
 
@@ -69,6 +72,66 @@ public class GeneralConf extends Conf {
         return (boolean) read("merge_same_pipe_items");
     }
 
+    /**
+     * the maximum amount of extraction cycles whose items are collected into one item stack by an extraction pipe
+     */
+    public int getExtractionBatchCycles() {
+        return (int) read("extraction_batch_cycles");
+    }
+
+    public int getTickThreads() {
+        return (int) read("tick_threads");
+    }
+
+    public boolean isAdaptiveTPS() {
+        return (boolean) read("adaptive_tps.enabled");
+    }
+
+    public int getMinTPS() {
+        return (int) read("adaptive_tps.min_tps");
+    }
+
+    public int getMaxTPS() {
+        return (int) read("adaptive_tps.max_tps");
+    }
+
+    /**
+     * every group of worlds is ticked by its own thread, the other worlds are ticked by the main TransportPipes thread
+     */
+    public List<List<String>> getWorldTickGroups() {
+        List<List<String>> worldTickGroups = new ArrayList<>();
+        Object groups = read("world_tick_groups");
+        if (!(groups instanceof List)) {
+            return worldTickGroups;
+        }
+        for (Object group : (List<?>) groups) {
+            List<String> worldNames = new ArrayList<>();
+            if (group instanceof List) {
+                for (Object worldName : (List<?>) group) {
+                    worldNames.add(String.valueOf(worldName));
+                }
+            } else if (group != null) {
+                worldNames.add(String.valueOf(group));
+            }
+            if (!worldNames.isEmpty()) {
+                worldTickGroups.add(worldNames);
+            }
+        }
+        return worldTickGroups;
+    }
+
+    public TickWorker.CatchUpPolicy getTickCatchUpPolicy() {
+        String policy = (String) read("tick_catch_up_policy");
+        if (policy == null) {
+            return TickWorker.CatchUpPolicy.SKIP;
+        }
+        try {
+            return TickWorker.CatchUpPolicy.valueOf(policy.toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+            return TickWorker.CatchUpPolicy.SKIP;
+        }
+    }
+
     public ResourcepackService.ResourcepackMode getResourcepackMode() {
         String url = (String) read("resourcepack_mode");
         if (url == null || url.equalsIgnoreCase("default")) {
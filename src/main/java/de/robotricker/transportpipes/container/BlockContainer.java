@@ -5,6 +5,8 @@ import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 
 import de.robotricker.transportpipes.api.TransportPipesContainer;
+import de.robotricker.transportpipes.duct.pipe.items.ItemSimilarityKey;
+import de.robotricker.transportpipes.location.TPDirection;
 
 public abstract class BlockContainer implements TransportPipesContainer {
 
@@ -72,6 +74,14 @@ public abstract class BlockContainer implements TransportPipesContainer {
         return before.getMaxStackSize() - before.getAmount();
     }
 
+    /**
+     * does the same as spaceForItem(TPDirection, ItemStack) but gets the similarity key of the insertion as well, so
+     * containers which cache the space per item don't have to create it again
+     */
+    public int spaceForItem(TPDirection insertDirection, ItemStack insertion, ItemSimilarityKey insertionKey) {
+        return spaceForItem(insertDirection, insertion);
+    }
+
     protected boolean isInvLocked(InventoryHolder ih) {
         try {
             // check vanilla lock
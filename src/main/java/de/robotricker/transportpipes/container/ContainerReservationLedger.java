@@ -0,0 +1,79 @@
+package de.robotricker.transportpipes.container;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.robotricker.transportpipes.api.TransportPipesContainer;
+import de.robotricker.transportpipes.duct.pipe.items.ItemSimilarityKey;
+import de.robotricker.transportpipes.duct.pipe.items.PipeItem;
+
+/**
+ * THREAD-SAFE
+ * Keeps track of the items which are on their way into a container. As soon as a pipe sends an item towards a
+ * connected container, its amount is reserved against that container and the type of the item until the item is
+ * inserted or goes somewhere else. The routing only sees the free space for an item type minus the amount reserved for
+ * the same type, so no more items are sent to a container than it can hold.
+ */
+public class ContainerReservationLedger {
+
+    private final ConcurrentHashMap<Reservation, Integer> reservations = new ConcurrentHashMap<>();
+
+    /**
+     * the amount of items similar to the given key which are on their way into the given container
+     */
+    public int getReserved(TransportPipesContainer container, ItemSimilarityKey key) {
+        return reservations.getOrDefault(new Reservation(container, key), 0);
+    }
+
+    /**
+     * reserves the current amount of the given item against the given container
+     */
+    public void reserve(PipeItem pipeItem, TransportPipesContainer container) {
+        release(pipeItem);
+        // the item of the pipeItem changes while it moves on, so the key gets its own copy
+        int amount = pipeItem.getItem().getAmount();
+        ItemSimilarityKey key = ItemSimilarityKey.copyOf(pipeItem.getItem());
+        pipeItem.setReservation(container, key, amount);
+        reservations.merge(new Reservation(container, key), amount, Integer::sum);
+    }
+
+    /**
+     * releases the reservation of the given item if it has one
+     */
+    public void release(PipeItem pipeItem) {
+        TransportPipesContainer container = pipeItem.getReservedContainer();
+        if (container == null) {
+            return;
+        }
+        ItemSimilarityKey key = pipeItem.getReservedKey();
+        int amount = pipeItem.getReservedAmount();
+        pipeItem.setReservation(null, null, 0);
+        // the entry is removed as soon as nothing is reserved anymore
+        reservations.computeIfPresent(new Reservation(container, key), (r, reserved) -> reserved > amount ? reserved - amount : null);
+    }
+
+    private static class Reservation {
+
+        private final TransportPipesContainer container;
+        private final ItemSimilarityKey key;
+
+        private Reservation(TransportPipesContainer container, ItemSimilarityKey key) {
+            this.container = container;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Reservation that = (Reservation) o;
+            return container.equals(that.container) && key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return container.hashCode() * 31 + key.hashCode();
+        }
+
+    }
+
+}
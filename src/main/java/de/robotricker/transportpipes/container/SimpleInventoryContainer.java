@@ -1,6 +1,7 @@
 package de.robotricker.transportpipes.container;
 
 import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
@@ -13,14 +14,29 @@ import org.bukkit.inventory.ItemStack;
 import de.robotricker.transportpipes.api.DuctExtractEvent;
 import de.robotricker.transportpipes.api.DuctInsertEvent;
 import de.robotricker.transportpipes.duct.pipe.filter.ItemFilter;
+import de.robotricker.transportpipes.duct.pipe.items.ItemSimilarityKey;
 import de.robotricker.transportpipes.location.TPDirection;
 
 public class SimpleInventoryContainer extends BlockContainer {
 
+    /**
+     * the cached space is computed again after this time even without an invalidation, because other plugins can
+     * change the inventory without any event
+     */
+    private static final long SPACE_CACHE_LIFETIME_NANOS = 1_000_000_000L;
+
     private Chunk chunk;
     private InventoryHolder cachedInvHolder;
     private Inventory cachedInv;
 
+    /**
+     * THREAD-SAFE the space for every item which was asked for since the last change of the inventory. The map is
+     * replaced on every invalidation, so a space computed from the inventory before the change can't be put into the
+     * new map afterwards.
+     */
+    private volatile ConcurrentHashMap<ItemSimilarityKey, Integer> spaceCache = new ConcurrentHashMap<>();
+    private volatile long spaceCacheTime = System.nanoTime();
+
     public SimpleInventoryContainer(Block block) {
         super(block);
         this.chunk = block.getChunk();
@@ -58,6 +74,7 @@ public class SimpleInventoryContainer extends BlockContainer {
             }
         }
         if (itemTaken != null) {
+            invalidateSpaceCache();
             //block.getState().update();
         }
         return itemTaken;
@@ -72,6 +89,7 @@ public class SimpleInventoryContainer extends BlockContainer {
             return insertion;
         }
         Collection<ItemStack> overflow = cachedInv.addItem(insertion).values();
+        invalidateSpaceCache();
 		Bukkit.getServer().getPluginManager().callEvent(new DuctInsertEvent(cachedInv, insertion));
         //block.getState().update();
         if (overflow.isEmpty()) {
@@ -83,10 +101,25 @@ public class SimpleInventoryContainer extends BlockContainer {
 
     @Override
     public int spaceForItem(TPDirection insertDirection, ItemStack insertion) {
+        return spaceForItem(insertDirection, insertion, new ItemSimilarityKey(insertion));
+    }
+
+    @Override
+    public int spaceForItem(TPDirection insertDirection, ItemStack insertion, ItemSimilarityKey insertionKey) {
         if (isInvLocked(cachedInvHolder)) {
             return 0;
         }
 
+        ConcurrentHashMap<ItemSimilarityKey, Integer> spaceCache = this.spaceCache;
+        if (System.nanoTime() - spaceCacheTime > SPACE_CACHE_LIFETIME_NANOS) {
+            invalidateSpaceCache();
+            spaceCache = this.spaceCache;
+        }
+        Integer cachedSpace = spaceCache.get(insertionKey);
+        if (cachedSpace != null) {
+            return cachedSpace;
+        }
+
         int space = 0;
 
         for (int i = 0; i < cachedInv.getSize(); i++) {
@@ -98,13 +131,24 @@ public class SimpleInventoryContainer extends BlockContainer {
             }
         }
 
+        // the given key may belong to an item which changes later on, so the cache keeps its own copy
+        spaceCache.put(ItemSimilarityKey.copyOf(insertion), space);
         return space;
     }
 
+    /**
+     * THREAD-SAFE forgets the cached space, has to be called whenever the content of the inventory changes
+     */
+    public void invalidateSpaceCache() {
+        spaceCache = new ConcurrentHashMap<>();
+        spaceCacheTime = System.nanoTime();
+    }
+
     @Override
     public void updateBlock() {
         this.cachedInvHolder = ((InventoryHolder) block.getState()).getInventory().getHolder();
         this.cachedInv = cachedInvHolder.getInventory();
+        invalidateSpaceCache();
     }
 
 }
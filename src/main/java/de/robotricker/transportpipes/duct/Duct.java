@@ -20,6 +20,7 @@ import de.robotricker.transportpipes.TransportPipes;
 import de.robotricker.transportpipes.config.GeneralConf;
 import de.robotricker.transportpipes.duct.manager.DuctManager;
 import de.robotricker.transportpipes.duct.manager.GlobalDuctManager;
+import de.robotricker.transportpipes.duct.network.DuctNetwork;
 import de.robotricker.transportpipes.duct.types.DuctType;
 import de.robotricker.transportpipes.inventory.DuctSettingsInventory;
 import de.robotricker.transportpipes.items.ItemService;
@@ -39,6 +40,7 @@ public abstract class Duct {
     private ConcurrentHashMap<TPDirection, Duct> connectedDucts;
     private List<TPDirection> blockedConnections;
     private BlockData obfuscatedWith;
+    private volatile DuctNetwork network;
 
     public Duct(DuctType ductType, BlockLocation blockLoc, World world, Chunk chunk, DuctSettingsInventory settingsInv, GlobalDuctManager globalDuctManager) {
         this.ductType = ductType;
@@ -81,6 +83,25 @@ public abstract class Duct {
         return world;
     }
 
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    /**
+     * the network this duct belongs to or null if it was not indexed yet
+     */
+    public DuctNetwork getNetwork() {
+        return network;
+    }
+
+    public void setNetwork(DuctNetwork network) {
+        this.network = network;
+    }
+
     public boolean isInLoadedChunk() {
         return ((CraftWorld) world).getHandle().getChunkProvider().isLoaded(chunkX, chunkZ);
     }
@@ -99,15 +120,33 @@ public abstract class Duct {
         this.obfuscatedWith = obfuscatedWith;
     }
 
-    public void tick(boolean bigTick, TransportPipes transportPipes, DuctManager<? extends Duct> ductManager, GeneralConf generalConf) {
+    public void tick(TransportPipes transportPipes, DuctManager<? extends Duct> ductManager, GeneralConf generalConf) {
+
+    }
+
+    public void postTick(TransportPipes transportPipes, DuctManager<? extends Duct> ductManager, GeneralConf generalConf) {
 
     }
 
-    public void postTick(boolean bigTick, TransportPipes transportPipes, DuctManager<? extends Duct> ductManager, GeneralConf generalConf) {
+    /**
+     * gets called by the tick thread at the tick this duct was scheduled for
+     */
+    public void scheduledTick(TransportPipes transportPipes, DuctManager<? extends Duct> ductManager, GeneralConf generalConf) {
 
     }
 
-    public void syncBigTick(DuctManager<? extends Duct> ductManager) {
+    /**
+     * gets called by the main thread at the tick this duct was scheduled for
+     */
+    public void syncScheduledTick(DuctManager<? extends Duct> ductManager) {
+
+    }
+
+    /**
+     * schedules all wakeups this duct currently needs. Ducts inside unloaded chunks are not woken up, so this gets
+     * called again when the chunk is loaded.
+     */
+    public void scheduleWakeUps() {
 
     }
 
@@ -31,7 +31,10 @@ public abstract class DuctManager<T extends Duct> {
 
     public abstract void registerRecipes();
 
-    public abstract void tick();
+    /**
+     * ticks the ducts inside the worlds of the given tick group. Called by the thread of that group.
+     */
+    public abstract void tick(TickGroup tickGroup);
 
     /**
      * called inside the bukkit thread whenever a duct comes into visible range
@@ -0,0 +1,115 @@
+package de.robotricker.transportpipes.duct.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import de.robotricker.transportpipes.duct.Duct;
+
+/**
+ * Wakes up ducts at the tick they asked for, so ducts without anything to do don't cost anything per tick.
+ * <p>
+ * The wakeups are kept inside a hashed timing wheel: scheduling and polling cost O(1) per wakeup, a wakeup further
+ * away than one revolution of the wheel just stays in its slot for another round. Only the earliest wakeup of a duct
+ * is kept, a duct that is woken up earlier than needed can simply schedule itself again.
+ */
+public class DuctScheduler {
+
+    private static final int WHEEL_SIZE = 256;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /**
+     * THREAD-SAFE
+     * the tick each scheduled duct gets woken up at
+     */
+    private final ConcurrentHashMap<Duct, Long> wakeupTicks;
+    /**
+     * THREAD-SAFE
+     * wakeups which were not sorted into the wheel yet
+     */
+    private final ConcurrentLinkedQueue<Wakeup> incoming;
+    /**
+     * only accessed by the tick thread
+     */
+    private final List<List<Wakeup>> wheel;
+    private volatile long currentTick;
+
+    public DuctScheduler() {
+        this.wakeupTicks = new ConcurrentHashMap<>();
+        this.incoming = new ConcurrentLinkedQueue<>();
+        this.wheel = new ArrayList<>(WHEEL_SIZE);
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * THREAD-SAFE wakes up the given duct in the given amount of ticks (at least 1).
+     * Does nothing if the duct is already scheduled for an earlier tick.
+     */
+    public void schedule(Duct duct, long delay) {
+        long wakeupTick = currentTick + Math.max(1, delay);
+        if (wakeupTicks.merge(duct, wakeupTick, Math::min) == wakeupTick) {
+            incoming.add(new Wakeup(duct, wakeupTick));
+        }
+    }
+
+    /**
+     * THREAD-SAFE removes the pending wakeup of the given duct
+     */
+    public void cancel(Duct duct) {
+        wakeupTicks.remove(duct);
+    }
+
+    /**
+     * advances the scheduler by one tick and returns all ducts which are due.
+     * Has to be called once per tick by the tick thread.
+     */
+    public List<Duct> pollDue() {
+        long tick = currentTick + 1;
+        currentTick = tick;
+
+        Wakeup wakeup;
+        while ((wakeup = incoming.poll()) != null) {
+            // wakeups which were scheduled while the tick advanced are overdue and run now
+            wheel.get((int) (Math.max(wakeup.tick, tick) & WHEEL_MASK)).add(wakeup);
+        }
+
+        List<Wakeup> slot = wheel.get((int) (tick & WHEEL_MASK));
+        if (slot.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Duct> dueDucts = new ArrayList<>();
+        int kept = 0;
+        for (Wakeup slotWakeup : slot) {
+            if (slotWakeup.tick > tick) {
+                // belongs to a later revolution of the wheel
+                slot.set(kept++, slotWakeup);
+            } else if (wakeupTicks.remove(slotWakeup.duct, slotWakeup.tick)) {
+                dueDucts.add(slotWakeup.duct);
+            }
+            // otherwise the wakeup was cancelled or replaced by an earlier one
+        }
+        slot.subList(kept, slot.size()).clear();
+        return dueDucts;
+    }
+
+    private static class Wakeup {
+
+        private final Duct duct;
+        private final long tick;
+
+        private Wakeup(Duct duct, long tick) {
+            this.duct = duct;
+            this.tick = tick;
+        }
+
+    }
+
+}
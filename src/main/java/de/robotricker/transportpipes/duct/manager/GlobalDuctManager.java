@@ -1,10 +1,10 @@
 package de.robotricker.transportpipes.duct.manager;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.inject.Inject;
 
@@ -19,6 +19,7 @@ import de.robotricker.transportpipes.TransportPipes;
 import de.robotricker.transportpipes.config.PlayerSettingsConf;
 import de.robotricker.transportpipes.duct.Duct;
 import de.robotricker.transportpipes.duct.DuctRegister;
+import de.robotricker.transportpipes.duct.network.DuctNetworkIndex;
 import de.robotricker.transportpipes.duct.types.BaseDuctType;
 import de.robotricker.transportpipes.duct.types.DuctType;
 import de.robotricker.transportpipes.location.BlockLocation;
@@ -26,6 +27,7 @@ import de.robotricker.transportpipes.location.TPDirection;
 import de.robotricker.transportpipes.protocol.ArmorStandData;
 import de.robotricker.transportpipes.protocol.ProtocolService;
 import de.robotricker.transportpipes.rendersystems.RenderSystem;
+import de.robotricker.transportpipes.utils.ChunkSectionMap;
 import de.robotricker.transportpipes.utils.WorldUtils;
 
 public class GlobalDuctManager {
@@ -38,11 +40,22 @@ public class GlobalDuctManager {
     /**
      * ThreadSafe
      **/
-    private ConcurrentHashMap<World, ConcurrentSkipListMap<BlockLocation, Duct>> ducts;
+    private ConcurrentHashMap<World, ChunkSectionMap<Duct>> ducts;
     /**
      * ThreadSafe
      **/
     private ConcurrentHashMap<Player, Set<Duct>> playerDucts;
+    /**
+     * ThreadSafe
+     * the network index of every tick group, only updated by the thread of its group
+     **/
+    private ConcurrentHashMap<TickGroup, DuctNetworkIndex> networkIndices;
+    private final TickGroup defaultTickGroup;
+    private volatile List<TickGroup> tickGroups;
+    /**
+     * ThreadSafe
+     **/
+    private ConcurrentHashMap<World, TickGroup> worldTickGroups;
 
     @Inject
     public GlobalDuctManager(TransportPipes transportPipes, ProtocolService protocolService, DuctRegister ductRegister, PlayerSettingsService playerSettingsService) {
@@ -52,20 +65,78 @@ public class GlobalDuctManager {
         this.playerSettingsService = playerSettingsService;
         this.ducts = new ConcurrentHashMap<>();
         this.playerDucts = new ConcurrentHashMap<>();
+        this.networkIndices = new ConcurrentHashMap<>();
+        this.defaultTickGroup = new TickGroup("default", Collections.emptySet());
+        this.tickGroups = Collections.singletonList(defaultTickGroup);
+        this.worldTickGroups = new ConcurrentHashMap<>();
     }
 
-    public ConcurrentHashMap<World, ConcurrentSkipListMap<BlockLocation, Duct>> getDucts() {
+    public ConcurrentHashMap<World, ChunkSectionMap<Duct>> getDucts() {
         return ducts;
     }
 
-    public ConcurrentSkipListMap<BlockLocation, Duct> getDucts(World world) {
-        return ducts.computeIfAbsent(world, v -> new ConcurrentSkipListMap<>());
+    public ChunkSectionMap<Duct> getDucts(World world) {
+        return ducts.computeIfAbsent(world, v -> new ChunkSectionMap<>());
+    }
+
+    public List<Duct> getDuctsInChunk(World world, int chunkX, int chunkZ) {
+        return getDucts(world).getInChunk(chunkX, chunkZ);
+    }
+
+    /**
+     * THREAD-SAFE the index of the networks inside the worlds of the given tick group
+     */
+    public DuctNetworkIndex getNetworkIndex(TickGroup tickGroup) {
+        return networkIndices.computeIfAbsent(tickGroup, g -> new DuctNetworkIndex(this));
+    }
+
+    public TickGroup getDefaultTickGroup() {
+        return defaultTickGroup;
+    }
+
+    public List<TickGroup> getTickGroups() {
+        return tickGroups;
+    }
+
+    /**
+     * sets the tick groups the worlds are split into. Has to be called before the tick threads are started.
+     */
+    public void setTickGroups(List<TickGroup> tickGroups) {
+        this.tickGroups = Collections.unmodifiableList(new ArrayList<>(tickGroups));
+        this.worldTickGroups.clear();
+        this.networkIndices.clear();
+    }
+
+    /**
+     * THREAD-SAFE the tick group which ticks the given world
+     */
+    public TickGroup getTickGroup(World world) {
+        return worldTickGroups.computeIfAbsent(world, w -> {
+            for (TickGroup tickGroup : tickGroups) {
+                if (tickGroup.contains(w)) {
+                    return tickGroup;
+                }
+            }
+            return defaultTickGroup;
+        });
     }
 
     public Duct getDuctAtLoc(World world, BlockLocation blockLoc) {
         return getDucts(world).get(blockLoc);
     }
 
+    public Duct getDuctAtLoc(World world, int x, int y, int z) {
+        return getDucts(world).get(x, y, z);
+    }
+
+    public Duct getDuctAtLoc(World world, long packedLoc) {
+        return getDucts(world).get(packedLoc);
+    }
+
+    public boolean isRegistered(Duct duct) {
+        return getDuctAtLoc(duct.getWorld(), duct.getBlockLoc()) == duct;
+    }
+
     public Duct getDuctAtLoc(Location location) {
         return getDuctAtLoc(location.getWorld(), new BlockLocation(location));
     }
@@ -85,10 +156,12 @@ public class GlobalDuctManager {
 
     public void registerDuct(Duct duct) {
         getDucts(duct.getWorld()).put(duct.getBlockLoc(), duct);
+        getNetworkIndex(getTickGroup(duct.getWorld())).markDirty(duct);
     }
 
     public void unregisterDuct(Duct duct) {
         getDucts(duct.getWorld()).remove(duct.getBlockLoc());
+        getNetworkIndex(getTickGroup(duct.getWorld())).markDirty(duct);
     }
 
     public void registerDuctInRenderSystems(Duct duct, boolean updateForPlayers) {
@@ -178,7 +251,7 @@ public class GlobalDuctManager {
         //update duct connections
         duct.getDuctConnections().clear();
         for (TPDirection tpDir : TPDirection.values()) {
-            Duct neighborDuct = getDuctAtLoc(duct.getWorld(), duct.getBlockLoc().getNeighbor(tpDir));
+            Duct neighborDuct = getDuctAtLoc(duct.getWorld(), duct.getBlockLoc().getNeighborKey(tpDir));
             if (neighborDuct != null && duct.getDuctType().connectsTo(neighborDuct.getDuctType()) && !duct.getBlockedConnections().contains(tpDir)
                     && !neighborDuct.getBlockedConnections().contains(tpDir.getOpposite())) {
                 duct.getDuctConnections().put(tpDir, neighborDuct);
@@ -188,6 +261,7 @@ public class GlobalDuctManager {
         duct.getDuctType().getBaseDuctType().getDuctManager().updateNonDuctConnections(duct);
         //notify connections change
         duct.notifyConnectionChange();
+        getNetworkIndex(getTickGroup(duct.getWorld())).markDirty(duct);
     }
 
     public void updateNeighborDuctsConnections(Duct duct) {
@@ -202,9 +276,12 @@ public class GlobalDuctManager {
         }
     }
 
-    public void tick() {
+    public void tick(TickGroup tickGroup) {
+        // every group rebuilds the networks of its own worlds, so the pipes are never ticked while their networks,
+        // routing tables and express lanes are replaced by another thread
+        getNetworkIndex(tickGroup).update();
         for (BaseDuctType<? extends Duct> baseDuctType : ductRegister.baseDuctTypes()) {
-            baseDuctType.getDuctManager().tick();
+            baseDuctType.getDuctManager().tick(tickGroup);
         }
     }
 
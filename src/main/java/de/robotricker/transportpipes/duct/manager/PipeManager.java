@@ -1,15 +1,15 @@
 package de.robotricker.transportpipes.duct.manager;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.inject.Inject;
 
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Tag;
@@ -24,8 +24,10 @@ import de.robotricker.transportpipes.api.TransportPipesContainer;
 import de.robotricker.transportpipes.config.GeneralConf;
 import de.robotricker.transportpipes.config.LangConf;
 import de.robotricker.transportpipes.config.PlayerSettingsConf;
+import de.robotricker.transportpipes.container.ContainerReservationLedger;
 import de.robotricker.transportpipes.duct.Duct;
 import de.robotricker.transportpipes.duct.DuctRegister;
+import de.robotricker.transportpipes.duct.network.ExpressLane;
 import de.robotricker.transportpipes.duct.pipe.Pipe;
 import de.robotricker.transportpipes.duct.pipe.items.PipeItem;
 import de.robotricker.transportpipes.duct.types.BaseDuctType;
@@ -36,29 +38,43 @@ import de.robotricker.transportpipes.items.ItemService;
 import de.robotricker.transportpipes.location.BlockLocation;
 import de.robotricker.transportpipes.location.TPDirection;
 import de.robotricker.transportpipes.protocol.ProtocolService;
+import de.robotricker.transportpipes.utils.ChunkSectionMap;
 import de.robotricker.transportpipes.utils.WorldUtils;
 import de.robotricker.transportpipes.utils.legacy.LegacyUtils;
 
 public class PipeManager extends DuctManager<Pipe> {
 
-    private static final long BIG_TICK_COUNT = 10;
-
     private PlayerSettingsService playerSettingsService;
     private GeneralConf generalConf;
 
     /**
      * ThreadSafe
      **/
-    private ConcurrentHashMap<World, ConcurrentSkipListMap<BlockLocation, TransportPipesContainer>> containers;
+    private ConcurrentHashMap<World, ChunkSectionMap<TransportPipesContainer>> containers;
 
     /**
      * THREAD-SAFE
      */
     private ConcurrentHashMap<Player, Set<PipeItem>> playerItems;
 
-    private ShapedRecipe wrenchRecipe;
+    /**
+     * THREAD-SAFE
+     * the tick state of every tick group
+     */
+    private ConcurrentHashMap<TickGroup, TickState> tickStates;
+
+    /**
+     * THREAD-SAFE
+     * the pipes with unloadedItems per world, keyed by the packed coordinates of the chunk the items are waiting for
+     */
+    private ConcurrentHashMap<World, ConcurrentHashMap<Long, Set<Pipe>>> unloadedItemPipes;
 
-    private long tickCounter;
+    /**
+     * THREAD-SAFE
+     */
+    private ContainerReservationLedger reservationLedger;
+
+    private ShapedRecipe wrenchRecipe;
 
     @Inject
     public PipeManager(TransportPipes transportPipes, DuctRegister ductRegister, GlobalDuctManager globalDuctManager, ProtocolService protocolService, ItemService itemService, PlayerSettingsService playerSettingsService, GeneralConf generalConf) {
@@ -67,20 +83,29 @@ public class PipeManager extends DuctManager<Pipe> {
         this.generalConf = generalConf;
         playerItems = new ConcurrentHashMap<>();
         containers = new ConcurrentHashMap<>();
-        tickCounter = 0;
+        tickStates = new ConcurrentHashMap<>();
+        unloadedItemPipes = new ConcurrentHashMap<>();
+        reservationLedger = new ContainerReservationLedger();
     }
 
-    public ConcurrentHashMap<World, ConcurrentSkipListMap<BlockLocation, TransportPipesContainer>> getContainers() {
+    public ConcurrentHashMap<World, ChunkSectionMap<TransportPipesContainer>> getContainers() {
         return containers;
     }
 
-    public ConcurrentSkipListMap<BlockLocation, TransportPipesContainer> getContainers(World world) {
-        return containers.computeIfAbsent(world, v -> new ConcurrentSkipListMap<BlockLocation, TransportPipesContainer>());
+    public ContainerReservationLedger getReservationLedger() {
+        return reservationLedger;
+    }
+
+    public ChunkSectionMap<TransportPipesContainer> getContainers(World world) {
+        return containers.computeIfAbsent(world, v -> new ChunkSectionMap<>());
     }
 
     public TransportPipesContainer getContainerAtLoc(World world, BlockLocation blockLoc) {
-        Map<BlockLocation, TransportPipesContainer> containerMap = getContainers(world);
-        return containerMap.get(blockLoc);
+        return getContainers(world).get(blockLoc);
+    }
+
+    public TransportPipesContainer getContainerAtLoc(World world, long packedLoc) {
+        return getContainers(world).get(packedLoc);
     }
 
     public TransportPipesContainer getContainerAtLoc(Location location) {
@@ -92,7 +117,7 @@ public class PipeManager extends DuctManager<Pipe> {
         Pipe pipe = (Pipe) duct;
         pipe.getContainerConnections().clear();
         for (TPDirection tpDir : TPDirection.values()) {
-            TransportPipesContainer neighborContainer = getContainerAtLoc(pipe.getWorld(), pipe.getBlockLoc().getNeighbor(tpDir));
+            TransportPipesContainer neighborContainer = getContainerAtLoc(pipe.getWorld(), pipe.getBlockLoc().getNeighborKey(tpDir));
             if (neighborContainer != null) {
                 pipe.getContainerConnections().put(tpDir, neighborContainer);
             }
@@ -184,51 +209,172 @@ public class PipeManager extends DuctManager<Pipe> {
         Bukkit.addRecipe(wrenchRecipe);
     }
 
+    public GeneralConf getGeneralConf() {
+        return generalConf;
+    }
+
     public ShapedRecipe getWrenchRecipe() {
         return wrenchRecipe;
     }
 
     @Override
-    public void tick() {
-        tickCounter++;
-        tickCounter %= BIG_TICK_COUNT;
-        boolean bigTick = tickCounter == 0;
-
-        if(bigTick) {
+    public void tick(TickGroup tickGroup) {
+        TickState tickState = getTickState(tickGroup);
+        Set<Pipe> hotPipes = tickState.hotPipes;
+        RegionTickEngine tickEngine = tickState.tickEngine;
+
+        // run the scheduled work. Ducts inside unloaded chunks are scheduled again when their chunk is loaded.
+        List<Duct> syncDueDucts = tickState.syncScheduler.pollDue();
+        if (!syncDueDucts.isEmpty()) {
             transportPipes.runTaskSync(() -> {
-                Set<World> worlds = globalDuctManager.getDucts().keySet();
-                for (World world : worlds) {
-                    ConcurrentSkipListMap<BlockLocation, Duct> ductMap = globalDuctManager.getDucts().get(world);
-                    if (ductMap != null) {
-                        for (Duct duct : ductMap.values()) {
-                            if (duct instanceof Pipe && duct.isInLoadedChunk()) {
-                                duct.syncBigTick(this);
-                            }
-                        }
+                for (Duct duct : syncDueDucts) {
+                    if (globalDuctManager.isRegistered(duct) && duct.isInLoadedChunk()) {
+                        duct.syncScheduledTick(this);
                     }
                 }
             });
         }
+        // pipes whose items arrive at the middle or the border of the pipe in this tick
+        for (Duct duct : tickState.transitScheduler.pollDue()) {
+            if (globalDuctManager.isRegistered(duct) && duct.isInLoadedChunk()) {
+                hotPipes.add((Pipe) duct);
+            }
+        }
+        for (Duct duct : tickState.scheduler.pollDue()) {
+            if (globalDuctManager.isRegistered(duct) && duct.isInLoadedChunk()) {
+                duct.scheduledTick(transportPipes, this, generalConf);
+            }
+        }
 
-        Set<World> worlds = globalDuctManager.getDucts().keySet();
-        for (World world : worlds) {
-            ConcurrentSkipListMap<BlockLocation, Duct> ductMap = globalDuctManager.getDucts().get(world);
-            if (ductMap != null) {
-                for (Duct duct : ductMap.values()) {
-                    if (duct instanceof Pipe && duct.isInLoadedChunk()) {
-                        duct.tick(bigTick, transportPipes, this, generalConf);
-                    }
-                }
-                for (Duct duct : ductMap.values()) {
-                    if (duct instanceof Pipe && duct.isInLoadedChunk()) {
-                        duct.postTick(bigTick, transportPipes, this, generalConf);
-                    }
+        List<Pipe> tickedPipes = new ArrayList<>(hotPipes);
+
+        tickEngine.setParallelism(generalConf.getTickThreads());
+        tickEngine.setPipes(tickedPipes);
+        tickEngine.runPhase(pipe -> pipe.tick(transportPipes, this, generalConf));
+        tickEngine.runPhase(pipe -> pipe.postTick(transportPipes, this, generalConf));
+
+        // drained pipes leave the hot set. Checking again after the removal catches items which were put in concurrently.
+        for (Pipe pipe : tickedPipes) {
+            // pipes which are not ticked anymore keep this count until they get hot again, so it has to be up to date
+            pipe.updateItemCountSnapshot();
+            if (!pipe.hasPendingWork()) {
+                hotPipes.remove(pipe);
+                if (pipe.hasPendingWork()) {
+                    hotPipes.add(pipe);
                 }
             }
         }
 
     }
 
+    /**
+     * THREAD-SAFE adds the given pipe to the pipes which get ticked. It stays there as long as it has pending work, see
+     * {@link Pipe#hasPendingWork()}.
+     */
+    public void markPipeHot(Pipe pipe) {
+        getTickState(pipe).hotPipes.add(pipe);
+    }
+
+    /**
+     * THREAD-SAFE
+     */
+    public void unmarkPipeHot(Pipe pipe) {
+        getTickState(pipe).hotPipes.remove(pipe);
+    }
+
+    /**
+     * THREAD-SAFE runs {@link Duct#scheduledTick} of the given duct on the tick thread in the given amount of ticks
+     */
+    public void scheduleTick(Duct duct, long delay) {
+        TickGroup tickGroup = globalDuctManager.getTickGroup(duct.getWorld());
+        getTickState(tickGroup).scheduler.schedule(duct, scaleDelay(tickGroup, delay));
+    }
+
+    /**
+     * THREAD-SAFE runs {@link Duct#syncScheduledTick} of the given duct on the main thread in the given amount of ticks
+     */
+    public void scheduleSyncTick(Duct duct, long delay) {
+        TickGroup tickGroup = globalDuctManager.getTickGroup(duct.getWorld());
+        getTickState(tickGroup).syncScheduler.schedule(duct, scaleDelay(tickGroup, delay));
+    }
+
+    /**
+     * THREAD-SAFE ticks the given pipe again in the given amount of base ticks, when the next of its items arrives
+     * at the middle or the border of the pipe
+     */
+    public void scheduleTransitTick(Pipe pipe, long delay) {
+        TickGroup tickGroup = globalDuctManager.getTickGroup(pipe.getWorld());
+        getTickState(tickGroup).transitScheduler.schedule(pipe, scaleDelay(tickGroup, delay));
+    }
+
+    /**
+     * whether the items of the given pipe are shown to at least one player
+     */
+    public boolean isPipeShown(Pipe pipe) {
+        for (Player p : WorldUtils.getPlayerList(pipe.getWorld())) {
+            if (globalDuctManager.getPlayerDucts(p).contains(pipe) && playerSettingsService.getOrCreateSettingsConf(p).isShowItems()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * whether a player who can see items is near enough to see any pipe of the given lane
+     */
+    public boolean isLaneShown(ExpressLane lane) {
+        for (Player p : WorldUtils.getPlayerList(lane.getWorld())) {
+            PlayerSettingsConf conf = playerSettingsService.getOrCreateSettingsConf(p);
+            Location location = p.getLocation();
+            if (conf.isShowItems() && lane.distance(location.getX(), location.getY(), location.getZ()) <= conf.getRenderDistance()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * converts a delay in base ticks to the current tick rate of the given tick group
+     */
+    private long scaleDelay(TickGroup tickGroup, long delay) {
+        return Math.max(1, Math.round(delay / tickGroup.getTickScale()));
+    }
+
+    private TickState getTickState(Duct duct) {
+        return getTickState(globalDuctManager.getTickGroup(duct.getWorld()));
+    }
+
+    private TickState getTickState(TickGroup tickGroup) {
+        return tickStates.computeIfAbsent(tickGroup, g -> new TickState());
+    }
+
+    /**
+     * THREAD-SAFE remembers that the given pipe holds an unloaded item whose destination is the given location
+     */
+    public void registerUnloadedItem(Pipe pipe, BlockLocation destination) {
+        unloadedItemPipes.computeIfAbsent(pipe.getWorld(), w -> new ConcurrentHashMap<>())
+                .computeIfAbsent(chunkKey(destination.getX() >> 4, destination.getZ() >> 4), k -> ConcurrentHashMap.newKeySet())
+                .add(pipe);
+    }
+
+    /**
+     * puts all unloaded items which wait for the given chunk into their destinations at once.
+     * Has to be called by the main thread after the chunk was loaded.
+     */
+    public void releaseUnloadedItems(Chunk chunk) {
+        ConcurrentHashMap<Long, Set<Pipe>> worldPipes = unloadedItemPipes.get(chunk.getWorld());
+        Set<Pipe> pipes = worldPipes != null ? worldPipes.remove(chunkKey(chunk.getX(), chunk.getZ())) : null;
+        if (pipes != null) {
+            for (Pipe pipe : pipes) {
+                pipe.releaseUnloadedItems(this, chunk.getX(), chunk.getZ());
+            }
+        }
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
     public Set<PipeItem> getPlayerPipeItems(Player player) {
         return playerItems.computeIfAbsent(player, p -> ConcurrentHashMap.newKeySet());
     }
@@ -253,6 +399,22 @@ public class PipeManager extends DuctManager<Pipe> {
         pipeAtBlockLoc.putPipeItem(pipeItem);
     }
 
+    /**
+     * puts a pipeItem which left one pipe into the next pipe. Use this instead of {@link Pipe#putPipeItem(PipeItem)}
+     * while ticking, so items which cross the border of a tick region are handed over safely.
+     */
+    public void handOverPipeItem(Pipe targetPipe, PipeItem pipeItem) {
+        getTickState(targetPipe).tickEngine.handOver(targetPipe, pipeItem);
+    }
+
+    /**
+     * puts a pipeItem which entered an express lane into the laneItems of the lane exit, the same way as
+     * {@link #handOverPipeItem(Pipe, PipeItem)}.
+     */
+    public void handOverLaneItem(Pipe exit, PipeItem pipeItem) {
+        getTickState(exit).tickEngine.handOverLaneItem(exit, pipeItem);
+    }
+
     public void updatePipeItemPosition(PipeItem pipeItem) {
         List<Player> playerList = WorldUtils.getPlayerList(pipeItem.getWorld());
         for (Player p : playerList) {
@@ -278,12 +440,29 @@ public class PipeManager extends DuctManager<Pipe> {
             return;
         }
         Pipe pipe = (Pipe) duct;
+        ExpressLane lane = pipe.getExpressLane();
+        if (lane != null) {
+            // the items skipping the lane have to be visible again
+            lane.getEntry(lane.getAxis()).requestLaneExpansion();
+            lane.getExit(lane.getAxis()).requestLaneExpansion();
+        }
         Set<PipeItem> playerPipeItems = getPlayerPipeItems(p);
         for (PipeItem pipeItem : pipe.getItems()) {
+            if (playerPipeItems.add(pipeItem)) {
+                // the positions of items in pipes nobody looked at are not updated every tick
+                pipe.updateItemPosition(pipeItem);
+                protocolService.sendPipeItem(p, pipeItem);
+            }
+        }
+        for (PipeItem pipeItem : pipe.getWaitingItems()) {
             if (playerPipeItems.add(pipeItem)) {
                 protocolService.sendPipeItem(p, pipeItem);
             }
         }
+        if (!pipe.getItems().isEmpty()) {
+            // the pipe has to update the item positions every tick from now on
+            markPipeHot(pipe);
+        }
     }
 
     @Override
@@ -306,5 +485,38 @@ public class PipeManager extends DuctManager<Pipe> {
                 protocolService.removePipeItem(p, pipeItem);
             }
         }
+        for (PipeItem pipeItem : pipe.getWaitingItems()) {
+            if (playerPipeItems.remove(pipeItem)) {
+                protocolService.removePipeItem(p, pipeItem);
+            }
+        }
+    }
+
+    /**
+     * the pipes and scheduled work of one tick group, only ticked by the thread of that group
+     */
+    private static class TickState {
+
+        /**
+         * THREAD-SAFE
+         * all pipes which have futureItems to take over or items which reach the middle or the border in the next tick or
+         * are seen by players, see {@link Pipe#hasPendingWork()}. Only these pipes get ticked. Pipes whose items arrive
+         * later, wait or wait for a chunk are woken up by the schedulers or the chunk loading instead.
+         */
+        private final Set<Pipe> hotPipes = ConcurrentHashMap.newKeySet();
+        /**
+         * wakes up pipes which have to do something on the tick thread
+         */
+        private final DuctScheduler scheduler = new DuctScheduler();
+        /**
+         * wakes up pipes which have to do something on the main thread
+         */
+        private final DuctScheduler syncScheduler = new DuctScheduler();
+        /**
+         * wakes up pipes whose items arrive at the middle or the border of the pipe
+         */
+        private final DuctScheduler transitScheduler = new DuctScheduler();
+        private final RegionTickEngine tickEngine = new RegionTickEngine();
+
     }
 }
@@ -0,0 +1,260 @@
+package de.robotricker.transportpipes.duct.manager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
+
+import de.robotricker.transportpipes.duct.pipe.Pipe;
+import de.robotricker.transportpipes.duct.pipe.items.PipeItem;
+
+/**
+ * Splits the pipes to tick into chunk aligned regions and runs the tick phases of these regions on a worker pool.
+ * <p>
+ * PipeItems which leave their region during a phase are not put into the next pipe directly but collected inside
+ * the region they came from. After all regions finished their phases, these handoffs are put into their target pipes
+ * region by region in a fixed order, so the result does not depend on the order the workers finished in. The same
+ * goes for items entering an express lane whose exit lies inside another region.
+ * <p>
+ * Before every phase, the item counts of the pipes to tick are recorded. Pipes decide whether a neighbor is saturated
+ * based on these counts, so they never read the state of a region which is in the middle of its phase.
+ */
+public class RegionTickEngine {
+
+    /**
+     * one region covers 4x4 chunks
+     */
+    private static final int REGION_CHUNK_SHIFT = 2;
+
+    private ForkJoinPool pool;
+    private int parallelism;
+
+    /**
+     * only modified by the tick thread between two ticks
+     */
+    private List<Region> regions;
+    private Map<Pipe, Region> pipeRegions;
+
+    private final ThreadLocal<Region> currentRegion;
+
+    public RegionTickEngine() {
+        this.parallelism = 1;
+        this.regions = Collections.emptyList();
+        this.pipeRegions = new IdentityHashMap<>();
+        this.currentRegion = new ThreadLocal<>();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * sets the amount of worker threads. A parallelism of 1 ticks all regions inside the calling thread.
+     */
+    public void setParallelism(int parallelism) {
+        parallelism = Math.max(1, parallelism);
+        if (this.parallelism == parallelism) {
+            return;
+        }
+        this.parallelism = parallelism;
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        if (parallelism > 1) {
+            pool = new ForkJoinPool(parallelism, p -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                thread.setName("TransportPipes-Worker-" + thread.getPoolIndex());
+                return thread;
+            }, null, false);
+        }
+    }
+
+    /**
+     * sets the pipes which are ticked by the following phases and splits them into regions.
+     * Has to be called by the tick thread before the phases of a tick are run.
+     */
+    public void setPipes(List<Pipe> pipes) {
+        if (pool == null) {
+            Region region = new Region(null);
+            region.pipes.addAll(pipes);
+            this.regions = Collections.singletonList(region);
+            this.pipeRegions = Collections.emptyMap();
+            return;
+        }
+
+        Map<RegionKey, Region> regionMap = new LinkedHashMap<>();
+        Map<Pipe, Region> pipeRegions = new IdentityHashMap<>();
+        for (Pipe pipe : pipes) {
+            RegionKey key = new RegionKey(pipe.getWorld().getName(), pipe.getChunkX() >> REGION_CHUNK_SHIFT, pipe.getChunkZ() >> REGION_CHUNK_SHIFT);
+            Region region = regionMap.computeIfAbsent(key, Region::new);
+            region.pipes.add(pipe);
+            pipeRegions.put(pipe, region);
+        }
+
+        List<Region> regions = new ArrayList<>(regionMap.values());
+        regions.sort(Comparator.comparing((Region r) -> r.key));
+        this.regions = regions;
+        this.pipeRegions = pipeRegions;
+    }
+
+    /**
+     * runs the given action for every loaded pipe of every region. The regions are processed in parallel if the
+     * parallelism is greater than 1. Returns after all regions are done.
+     */
+    public void runPhase(Consumer<Pipe> action) {
+        for (Region region : regions) {
+            for (Pipe pipe : region.pipes) {
+                pipe.updateItemCountSnapshot();
+            }
+        }
+        if (pool == null) {
+            for (Region region : regions) {
+                region.run(action);
+            }
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(regions.size());
+        for (Region region : regions) {
+            tasks.add(pool.submit(() -> {
+                currentRegion.set(region);
+                try {
+                    region.run(action);
+                } finally {
+                    currentRegion.remove();
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        drainHandoffs();
+    }
+
+    /**
+     * puts the given pipeItem into the given pipe. If this is called from inside a region that does not contain the
+     * target pipe, the pipeItem is handed over after the current phase.
+     */
+    public void handOver(Pipe targetPipe, PipeItem pipeItem) {
+        handOver(new Handoff(targetPipe, pipeItem, false));
+    }
+
+    /**
+     * puts the given pipeItem into the laneItems of the given lane exit. If this is called from inside a region that
+     * does not contain the exit, the pipeItem is handed over after the current phase.
+     */
+    public void handOverLaneItem(Pipe exit, PipeItem pipeItem) {
+        handOver(new Handoff(exit, pipeItem, true));
+    }
+
+    private void handOver(Handoff handoff) {
+        Region region = currentRegion.get();
+        if (region != null && pipeRegions.get(handoff.targetPipe) != region) {
+            region.handoffs.add(handoff);
+        } else {
+            handoff.put();
+        }
+    }
+
+    private void drainHandoffs() {
+        for (Region region : regions) {
+            for (Handoff handoff : region.handoffs) {
+                handoff.put();
+            }
+            region.handoffs.clear();
+        }
+    }
+
+    private static class Region {
+
+        private final RegionKey key;
+        private final List<Pipe> pipes;
+        private final List<Handoff> handoffs;
+
+        private Region(RegionKey key) {
+            this.key = key;
+            this.pipes = new ArrayList<>();
+            this.handoffs = new ArrayList<>();
+        }
+
+        private void run(Consumer<Pipe> action) {
+            for (Pipe pipe : pipes) {
+                if (pipe.isInLoadedChunk()) {
+                    action.accept(pipe);
+                }
+            }
+        }
+
+    }
+
+    private static class RegionKey implements Comparable<RegionKey> {
+
+        private final String worldName;
+        private final int regionX;
+        private final int regionZ;
+
+        private RegionKey(String worldName, int regionX, int regionZ) {
+            this.worldName = worldName;
+            this.regionX = regionX;
+            this.regionZ = regionZ;
+        }
+
+        @Override
+        public int compareTo(RegionKey o) {
+            int worldCompare = worldName.compareTo(o.worldName);
+            if (worldCompare != 0) {
+                return worldCompare;
+            }
+            if (regionZ != o.regionZ) {
+                return Integer.compare(regionZ, o.regionZ);
+            }
+            return Integer.compare(regionX, o.regionX);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            RegionKey regionKey = (RegionKey) o;
+            return regionX == regionKey.regionX &&
+                    regionZ == regionKey.regionZ &&
+                    worldName.equals(regionKey.worldName);
+        }
+
+        @Override
+        public int hashCode() {
+            return (worldName.hashCode() * 31 + regionX) * 31 + regionZ;
+        }
+
+    }
+
+    private static class Handoff {
+
+        private final Pipe targetPipe;
+        private final PipeItem pipeItem;
+        private final boolean laneItem;
+
+        private Handoff(Pipe targetPipe, PipeItem pipeItem, boolean laneItem) {
+            this.targetPipe = targetPipe;
+            this.pipeItem = pipeItem;
+            this.laneItem = laneItem;
+        }
+
+        private void put() {
+            if (laneItem) {
+                targetPipe.putLaneItem(pipeItem);
+            } else {
+                targetPipe.putPipeItem(pipeItem);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,64 @@
+package de.robotricker.transportpipes.duct.manager;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.bukkit.World;
+
+/**
+ * A group of worlds whose ducts are ticked together by one thread. The default group holds all worlds which are not
+ * part of another group.
+ */
+public class TickGroup {
+
+    private final String name;
+    /**
+     * the names of the worlds of this group, empty for the default group
+     */
+    private final Set<String> worldNames;
+    /**
+     * the amount of base ticks the current tick simulates, see {@link de.robotricker.transportpipes.TickRateController}
+     */
+    private volatile double tickScale = 1d;
+    /**
+     * the simulated time of this group in base ticks, advanced by the tick scale every tick
+     */
+    private volatile double time;
+
+    public TickGroup(String name, Set<String> worldNames) {
+        this.name = name;
+        this.worldNames = Collections.unmodifiableSet(worldNames);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Set<String> getWorldNames() {
+        return worldNames;
+    }
+
+    public boolean contains(World world) {
+        return worldNames.contains(world.getName());
+    }
+
+    public double getTickScale() {
+        return tickScale;
+    }
+
+    public void setTickScale(double tickScale) {
+        this.tickScale = tickScale;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * advances the simulated time by one tick. Has to be called by the thread of this group before every tick.
+     */
+    public void advanceTime() {
+        time = time + tickScale;
+    }
+
+}
@@ -0,0 +1,44 @@
+package de.robotricker.transportpipes.duct.network;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.bukkit.World;
+
+import de.robotricker.transportpipes.duct.Duct;
+
+/**
+ * A set of ducts which are connected with each other. Networks are built and replaced by the {@link DuctNetworkIndex}
+ * whenever the duct connections change.
+ */
+public class DuctNetwork {
+
+    private final World world;
+    private final List<Duct> ducts;
+    private final RoutingTable routingTable;
+
+    DuctNetwork(World world, List<Duct> ducts, RoutingTable routingTable) {
+        this.world = world;
+        this.ducts = Collections.unmodifiableList(ducts);
+        this.routingTable = routingTable;
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * all ducts of this network sorted by their block location
+     */
+    public List<Duct> getDucts() {
+        return ducts;
+    }
+
+    /**
+     * the shortest paths from the junctions of this network towards its destinations
+     */
+    public RoutingTable getRoutingTable() {
+        return routingTable;
+    }
+
+}
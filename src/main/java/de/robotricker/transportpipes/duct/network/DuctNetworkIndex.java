@@ -0,0 +1,176 @@
+package de.robotricker.transportpipes.duct.network;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import de.robotricker.transportpipes.duct.Duct;
+import de.robotricker.transportpipes.duct.manager.GlobalDuctManager;
+import de.robotricker.transportpipes.duct.pipe.ColoredPipe;
+import de.robotricker.transportpipes.duct.pipe.Pipe;
+import de.robotricker.transportpipes.location.TPDirection;
+
+/**
+ * Keeps track of the connected components of the ducts inside the worlds of one
+ * {@link de.robotricker.transportpipes.duct.manager.TickGroup}.
+ * <p>
+ * Topology changes are only queued by {@link #markDirty(Duct)}, which may be called from any thread. The queued
+ * changes are applied by the thread of the tick group inside {@link #update()} before every tick: all networks that
+ * contain a dirty duct or are connected to one are dissolved and rebuilt, every other network stays untouched. The
+ * {@link ExpressLane}s and the {@link RoutingTable}s of the rebuilt networks are computed again as well.
+ */
+public class DuctNetworkIndex {
+
+    private static final Comparator<Duct> DUCT_ORDER = Comparator.comparing(Duct::getBlockLoc);
+    /**
+     * shorter straight runs are not worth skipping
+     */
+    private static final int MIN_LANE_LENGTH = 4;
+
+    private final GlobalDuctManager globalDuctManager;
+
+    /**
+     * THREAD-SAFE
+     */
+    private final ConcurrentLinkedQueue<Duct> dirtyDucts;
+
+    public DuctNetworkIndex(GlobalDuctManager globalDuctManager) {
+        this.globalDuctManager = globalDuctManager;
+        this.dirtyDucts = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * THREAD-SAFE queues the network of the given duct for a rebuild
+     */
+    public void markDirty(Duct duct) {
+        dirtyDucts.add(duct);
+    }
+
+    /**
+     * rebuilds all networks which are affected by the ducts marked dirty since the last call.
+     * Has to be called by the tick thread.
+     */
+    public void update() {
+        if (dirtyDucts.isEmpty()) {
+            return;
+        }
+
+        Set<DuctNetwork> dissolvedNetworks = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Duct> seeds = new LinkedHashSet<>();
+        Duct dirtyDuct;
+        while ((dirtyDuct = dirtyDucts.poll()) != null) {
+            seeds.add(dirtyDuct);
+            DuctNetwork oldNetwork = dirtyDuct.getNetwork();
+            if (oldNetwork != null && dissolvedNetworks.add(oldNetwork)) {
+                seeds.addAll(oldNetwork.getDucts());
+            }
+        }
+
+        Set<Duct> assigned = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Duct seed : seeds) {
+            if (assigned.contains(seed)) {
+                continue;
+            }
+            if (!globalDuctManager.isRegistered(seed)) {
+                seed.setNetwork(null);
+                dissolveExpressLane(seed);
+                continue;
+            }
+
+            // flood fill the component of the seed duct
+            List<Duct> component = new ArrayList<>();
+            Deque<Duct> queue = new ArrayDeque<>();
+            queue.add(seed);
+            assigned.add(seed);
+            while (!queue.isEmpty()) {
+                Duct duct = queue.poll();
+                component.add(duct);
+                dissolveExpressLane(duct);
+                for (Duct neighbor : duct.getDuctConnections().values()) {
+                    if (!assigned.contains(neighbor) && globalDuctManager.isRegistered(neighbor)) {
+                        assigned.add(neighbor);
+                        queue.add(neighbor);
+                    }
+                }
+            }
+
+            component.sort(DUCT_ORDER);
+            DuctNetwork network = new DuctNetwork(seed.getWorld(), component, RoutingTable.build(component));
+            for (Duct duct : component) {
+                duct.setNetwork(network);
+            }
+            buildExpressLanes(network);
+        }
+    }
+
+    /**
+     * removes the lane of the given duct from all of its pipes. The items which are currently skipping the lane are
+     * put back into the pipes they would be in by now.
+     */
+    private void dissolveExpressLane(Duct duct) {
+        if (!(duct instanceof Pipe) || ((Pipe) duct).getExpressLane() == null) {
+            return;
+        }
+        ExpressLane lane = ((Pipe) duct).getExpressLane();
+        for (Pipe pipe : lane.getPipes()) {
+            if (pipe.getExpressLane() == lane) {
+                pipe.setExpressLane(null);
+            }
+        }
+        lane.getEntry(lane.getAxis()).requestLaneExpansion();
+        lane.getExit(lane.getAxis()).requestLaneExpansion();
+    }
+
+    /**
+     * detects all maximal straight runs of the given network
+     */
+    private void buildExpressLanes(DuctNetwork network) {
+        Set<Duct> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Duct duct : network.getDucts()) {
+            TPDirection axis = getStraightAxis(duct);
+            if (axis == null || !visited.add(duct)) {
+                continue;
+            }
+            Duct first = duct;
+            Duct previous;
+            while ((previous = first.getDuctConnections().get(axis.getOpposite())) != null && getStraightAxis(previous) == axis) {
+                first = previous;
+            }
+            List<Pipe> pipes = new ArrayList<>();
+            for (Duct next = first; next != null && getStraightAxis(next) == axis; next = next.getDuctConnections().get(axis)) {
+                visited.add(next);
+                pipes.add((Pipe) next);
+            }
+            if (pipes.size() >= MIN_LANE_LENGTH) {
+                ExpressLane lane = new ExpressLane(network.getWorld(), axis, pipes);
+                for (Pipe pipe : pipes) {
+                    pipe.setExpressLane(lane);
+                }
+            }
+        }
+    }
+
+    /**
+     * the axis of the given duct if it is a colored pipe which is connected to exactly two pipes on opposite sides
+     * and to no container, otherwise null
+     */
+    private TPDirection getStraightAxis(Duct duct) {
+        if (!(duct instanceof ColoredPipe) || !((Pipe) duct).getContainerConnections().isEmpty() || duct.getDuctConnections().size() != 2) {
+            return null;
+        }
+        for (TPDirection axis : new TPDirection[]{TPDirection.EAST, TPDirection.SOUTH, TPDirection.UP}) {
+            if (duct.getDuctConnections().containsKey(axis) && duct.getDuctConnections().containsKey(axis.getOpposite())) {
+                return axis;
+            }
+        }
+        return null;
+    }
+
+}
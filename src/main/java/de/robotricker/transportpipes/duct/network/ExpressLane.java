@@ -0,0 +1,82 @@
+package de.robotricker.transportpipes.duct.network;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.bukkit.World;
+
+import de.robotricker.transportpipes.duct.pipe.Pipe;
+import de.robotricker.transportpipes.location.BlockLocation;
+import de.robotricker.transportpipes.location.TPDirection;
+
+/**
+ * A straight run of pipes without branches and containers, detected by the {@link DuctNetworkIndex}.
+ * <p>
+ * Items which reach the middle of the first pipe of the lane while nobody can see the lane skip the pipes in between
+ * and wait in a FIFO of the last pipe until their arrival time. Like networks, lanes are replaced whenever the duct
+ * connections change.
+ */
+public class ExpressLane {
+
+    private final World world;
+    private final TPDirection axis;
+    private final List<Pipe> pipes;
+
+    ExpressLane(World world, TPDirection axis, List<Pipe> pipes) {
+        this.world = world;
+        this.axis = axis;
+        this.pipes = Collections.unmodifiableList(pipes);
+    }
+
+    public World getWorld() {
+        return world;
+    }
+
+    /**
+     * the direction from the first to the last pipe. Always EAST, SOUTH or UP.
+     */
+    public TPDirection getAxis() {
+        return axis;
+    }
+
+    /**
+     * all pipes of this lane sorted along the axis
+     */
+    public List<Pipe> getPipes() {
+        return pipes;
+    }
+
+    /**
+     * the pipe at which items moving in the given direction enter this lane, or null if the direction is not parallel
+     * to the lane
+     */
+    public Pipe getEntry(TPDirection movingDir) {
+        if (movingDir == axis) {
+            return pipes.get(0);
+        } else if (movingDir == axis.getOpposite()) {
+            return pipes.get(pipes.size() - 1);
+        }
+        return null;
+    }
+
+    /**
+     * the pipe at which items moving in the given direction leave this lane, or null if the direction is not parallel
+     * to the lane
+     */
+    public Pipe getExit(TPDirection movingDir) {
+        return getEntry(movingDir.getOpposite());
+    }
+
+    /**
+     * the distance between the given location and the nearest block of this lane
+     */
+    public double distance(double x, double y, double z) {
+        BlockLocation first = pipes.get(0).getBlockLoc();
+        BlockLocation last = pipes.get(pipes.size() - 1).getBlockLoc();
+        double dx = x - Math.max(first.getX(), Math.min(last.getX(), x));
+        double dy = y - Math.max(first.getY(), Math.min(last.getY(), y));
+        double dz = z - Math.max(first.getZ(), Math.min(last.getZ(), z));
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+}
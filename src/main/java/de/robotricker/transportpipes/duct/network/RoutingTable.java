@@ -0,0 +1,207 @@
+package de.robotricker.transportpipes.duct.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.robotricker.transportpipes.duct.Duct;
+import de.robotricker.transportpipes.duct.pipe.CraftingPipe;
+import de.robotricker.transportpipes.duct.pipe.GoldenPipe;
+import de.robotricker.transportpipes.duct.pipe.IronPipe;
+import de.robotricker.transportpipes.duct.pipe.Pipe;
+import de.robotricker.transportpipes.duct.pipe.VoidPipe;
+import de.robotricker.transportpipes.location.TPDirection;
+
+/**
+ * Knows for every junction of a {@link DuctNetwork} in which directions the shortest paths towards the destinations of
+ * the network start. Destinations are the containers connected to the network and the pipes which consume items.
+ * <p>
+ * Items leaving a junction only take directions which are the next hop towards at least one destination, so they
+ * don't wander into dead ends. The table is built together with its network, so it is only recomputed for the
+ * networks which are affected by a topology change.
+ * <p>
+ * Iron and golden pipes decide on their own where an item goes, depending on their output direction or their filters,
+ * which may change at any time. The paths don't lead through them: they count as destinations themselves, so the
+ * junctions send items towards them and they take over from there.
+ */
+public class RoutingTable {
+
+    /**
+     * networks with more searches times pipes than this keep routing locally, so a rebuild can't stall the tick
+     */
+    private static final long MAX_ROUTING_STEPS = 10_000_000L;
+
+    static final RoutingTable EMPTY = new RoutingTable(new IdentityHashMap<>(), 0);
+
+    private static final TPDirection[] DIRECTIONS = TPDirection.values();
+
+    /**
+     * per junction the amount of destinations whose shortest path starts in a direction, indexed by its ordinal
+     */
+    private final Map<Pipe, int[]> nextHopCounts;
+    private final int destinationCount;
+
+    private RoutingTable(Map<Pipe, int[]> nextHopCounts, int destinationCount) {
+        this.nextHopCounts = nextHopCounts;
+        this.destinationCount = destinationCount;
+    }
+
+    /**
+     * the amount of containers and consuming pipes the items inside the network can reach
+     */
+    public int getDestinationCount() {
+        return destinationCount;
+    }
+
+    /**
+     * the amount of destinations whose shortest path from the given junction starts in the given direction
+     */
+    public int getNextHopCount(Pipe junction, TPDirection dir) {
+        int[] counts = nextHopCounts.get(junction);
+        return counts != null ? counts[dir.ordinal()] : 0;
+    }
+
+    /**
+     * the given directions of the given pipe which are the next hop towards at least one destination. If the pipe is
+     * no junction or none of the directions leads to a destination, all given directions are returned.
+     */
+    public List<TPDirection> getNextHops(Pipe pipe, List<TPDirection> dirs) {
+        int[] counts = nextHopCounts.get(pipe);
+        if (counts == null) {
+            return dirs;
+        }
+        List<TPDirection> nextHops = new ArrayList<>(dirs.size());
+        for (TPDirection dir : dirs) {
+            if (counts[dir.ordinal()] > 0) {
+                nextHops.add(dir);
+            }
+        }
+        return nextHops.isEmpty() ? dirs : nextHops;
+    }
+
+    /**
+     * runs one breadth first search per destination over the pipes of the given network
+     */
+    static RoutingTable build(List<Duct> ducts) {
+        List<Pipe> pipes = new ArrayList<>();
+        Map<Duct, Integer> indices = new IdentityHashMap<>();
+        for (Duct duct : ducts) {
+            if (duct instanceof Pipe) {
+                indices.put(duct, pipes.size());
+                pipes.add((Pipe) duct);
+            }
+        }
+        int n = pipes.size();
+
+        int[][] neighbors = new int[n][DIRECTIONS.length];
+        // the pipes the paths end at: consuming pipes and pipes which route items on their own
+        boolean[] endpoint = new boolean[n];
+        boolean[] junction = new boolean[n];
+        // the pipes next to every connected container block
+        Map<Long, List<int[]>> containers = new HashMap<>();
+        int destinationCount = 0;
+        int endpointCount = 0;
+        for (int i = 0; i < n; i++) {
+            Pipe pipe = pipes.get(i);
+            Arrays.fill(neighbors[i], -1);
+            for (Map.Entry<TPDirection, Duct> connection : pipe.getDuctConnections().entrySet()) {
+                Integer neighbor = indices.get(connection.getValue());
+                if (neighbor != null) {
+                    neighbors[i][connection.getKey().ordinal()] = neighbor;
+                }
+            }
+            for (TPDirection dir : pipe.getContainerConnections().keySet()) {
+                containers.computeIfAbsent(pipe.getBlockLoc().getNeighborKey(dir), key -> new ArrayList<>()).add(new int[]{i, dir.ordinal()});
+            }
+            boolean consuming = pipe instanceof VoidPipe || pipe instanceof CraftingPipe;
+            endpoint[i] = consuming || pipe instanceof IronPipe || pipe instanceof GoldenPipe;
+            junction[i] = pipe.isJunction();
+            if (consuming) {
+                destinationCount++;
+            }
+            if (endpoint[i]) {
+                endpointCount++;
+            }
+        }
+        destinationCount += containers.size();
+        if (destinationCount == 0 || (long) (containers.size() + endpointCount) * n > MAX_ROUTING_STEPS) {
+            return EMPTY;
+        }
+
+        int[][] counts = new int[n][];
+        for (int i = 0; i < n; i++) {
+            if (junction[i]) {
+                counts[i] = new int[DIRECTIONS.length];
+            }
+        }
+
+        int[] dist = new int[n];
+        int[] queue = new int[n];
+        for (List<int[]> containerPipes : containers.values()) {
+            Arrays.fill(dist, -1);
+            int tail = 0;
+            for (int[] containerPipe : containerPipes) {
+                int i = containerPipe[0];
+                if (dist[i] == -1) {
+                    dist[i] = 1;
+                    queue[tail++] = i;
+                }
+                if (counts[i] != null) {
+                    counts[i][containerPipe[1]]++;
+                }
+            }
+            search(neighbors, endpoint, counts, dist, queue, tail);
+        }
+        for (int i = 0; i < n; i++) {
+            if (endpoint[i]) {
+                Arrays.fill(dist, -1);
+                dist[i] = 0;
+                queue[0] = i;
+                search(neighbors, endpoint, counts, dist, queue, 1);
+            }
+        }
+
+        Map<Pipe, int[]> nextHopCounts = new IdentityHashMap<>();
+        for (int i = 0; i < n; i++) {
+            if (counts[i] != null) {
+                nextHopCounts.put(pipes.get(i), counts[i]);
+            }
+        }
+        return new RoutingTable(nextHopCounts, destinationCount);
+    }
+
+    /**
+     * spreads the distances from the pipes already inside the queue and counts every neighbor which is one step closer
+     * to the destination as a next hop of a junction. The paths end at the given endpoints, so the search stops there.
+     */
+    private static void search(int[][] neighbors, boolean[] endpoint, int[][] counts, int[] dist, int[] queue, int tail) {
+        int head = 0;
+        while (head < tail) {
+            int i = queue[head++];
+            if (endpoint[i] && dist[i] > 0) {
+                continue;
+            }
+            for (int neighbor : neighbors[i]) {
+                if (neighbor >= 0 && dist[neighbor] == -1) {
+                    dist[neighbor] = dist[i] + 1;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        for (int i = 0; i < dist.length; i++) {
+            if (counts[i] == null || dist[i] <= 0) {
+                continue;
+            }
+            for (int d = 0; d < DIRECTIONS.length; d++) {
+                int neighbor = neighbors[i][d];
+                if (neighbor >= 0 && dist[neighbor] == dist[i] - 1 && !(endpoint[neighbor] && dist[neighbor] > 0)) {
+                    counts[i][d]++;
+                }
+            }
+        }
+    }
+
+}
@@ -39,6 +39,11 @@ import net.querz.nbt.tag.StringTag;
 
 public class CraftingPipe extends Pipe {
 
+    /**
+     * ticks between two crafting attempts
+     */
+    private static final long CRAFT_DELAY = 10;
+
     private ItemData[] recipeItems;
     private Recipe recipe;
     private TPDirection outputDir;
@@ -54,10 +59,16 @@ public class CraftingPipe extends Pipe {
     }
 
     @Override
-    public void tick(boolean bigTick, TransportPipes transportPipes, DuctManager<? extends Duct> ductManager, GeneralConf generalConf) {
-        super.tick(bigTick, transportPipes, ductManager, generalConf);
-        if (bigTick) {
-            performCrafting((PipeManager) ductManager, transportPipes);
+    public void scheduledTick(TransportPipes transportPipes, DuctManager<? extends Duct> ductManager, GeneralConf generalConf) {
+        super.scheduledTick(transportPipes, ductManager, generalConf);
+        performCrafting((PipeManager) ductManager, transportPipes);
+    }
+
+    @Override
+    public void scheduleWakeUps() {
+        super.scheduleWakeUps();
+        if (!cachedItems.isEmpty()) {
+            getPipeManager().scheduleTick(this, CRAFT_DELAY);
         }
     }
 
@@ -113,11 +124,13 @@ public class CraftingPipe extends Pipe {
             // output result item
             ItemStack resultItem = recipe.getResult();
             PipeItem pipeItem = new PipeItem(resultItem.clone(), getWorld(), getBlockLoc(), outputDir);
-            pipeItem.getRelativeLocation().set(0.5d, 0.5d, 0.5d);
+            pipeItem.getRelativeLocation().setMiddle();
             pipeItem.resetOldRelativeLocation();
             pipeManager.spawnPipeItem(pipeItem);
             pipeManager.putPipeItemInPipe(pipeItem);
 
+            // the cached items may be enough for another one
+            pipeManager.scheduleTick(this, CRAFT_DELAY);
         }
     }
 
@@ -147,6 +160,7 @@ public class CraftingPipe extends Pipe {
 
     public void setOutputDir(TPDirection outputDir) {
         this.outputDir = outputDir;
+        scheduleWakeUps();
     }
 
     public Recipe getRecipe() {
@@ -156,6 +170,7 @@ public class CraftingPipe extends Pipe {
     public void setRecipe(Recipe recipe) {
         this.recipe = recipe;
         updateIngredients(this.recipe);
+        scheduleWakeUps();
     }
 
     private  void updateIngredients(Recipe recipe){
@@ -206,6 +221,7 @@ public class CraftingPipe extends Pipe {
             settingsInv.save(null);
             settingsInv.populate();
         });
+        scheduleWakeUps();
         return item;
     }
 
@@ -226,6 +242,7 @@ public class CraftingPipe extends Pipe {
         if (oldOutputDirection != outputDir) {
             settingsInv.populate();
         }
+        scheduleWakeUps();
     }
 
     @Override
@@ -291,6 +308,7 @@ public class CraftingPipe extends Pipe {
 
         settingsInv.populate();
         settingsInv.save(null);
+        scheduleWakeUps();
     }
 
     @Override
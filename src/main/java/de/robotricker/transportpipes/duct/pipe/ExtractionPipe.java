@@ -32,12 +32,29 @@ import net.querz.nbt.tag.CompoundTag;
 
 public class ExtractionPipe extends Pipe {
 
+    /**
+     * ticks between two extractions
+     */
+    private static final long EXTRACT_DELAY = 10;
+    /**
+     * ticks between two checks for redstone power, in case the power change did not cause a redstone event nearby
+     */
+    private static final long REDSTONE_POLL_DELAY = 100;
+
     private TPDirection extractDirection;
     private ExtractCondition extractCondition;
     private ExtractAmount extractAmount;
     private ExtractMode extractMode;
     private ItemFilter itemFilter;
 
+    /**
+     * the items collected during the current extraction batch, they leave the pipe together as one item stack.
+     * Only accessed by the main thread.
+     */
+    private ItemStack batchItem;
+    private TPDirection batchDirection;
+    private int batchCycles;
+
     public ExtractionPipe(DuctType ductType, BlockLocation blockLoc, World world, Chunk chunk, DuctSettingsInventory settingsInv, GlobalDuctManager globalDuctManager, ItemDistributorService itemDistributor) {
         super(ductType, blockLoc, world, chunk, settingsInv, globalDuctManager, itemDistributor);
         this.extractDirection = null;
@@ -48,34 +65,87 @@ public class ExtractionPipe extends Pipe {
     }
 
     @Override
-    public void syncBigTick(DuctManager<? extends Duct> ductManager) {
-        super.syncBigTick(ductManager);
+    public void syncScheduledTick(DuctManager<? extends Duct> ductManager) {
+        super.syncScheduledTick(ductManager);
 
         PipeManager pipeManager = (PipeManager) ductManager;
 
+        // without an extract direction or container this pipe sleeps until its settings or connections change
         if (extractDirection == null || extractCondition == ExtractCondition.NEVER_EXTRACT) {
+            sendBatch(pipeManager);
             return;
         }
 
         //extract item
-        TransportPipesContainer container = pipeManager.getContainerAtLoc(getWorld(), getBlockLoc().getNeighbor(extractDirection));
+        TransportPipesContainer container = pipeManager.getContainerAtLoc(getWorld(), getBlockLoc().getNeighborKey(extractDirection));
         if (container != null) {
             if (extractCondition == ExtractCondition.NEEDS_REDSTONE) {
                 Block block = getBlockLoc().toBlock(getWorld());
                 if (!block.isBlockIndirectlyPowered() && !block.isBlockPowered()) {
+                    sendBatch(pipeManager);
+                    // woken up by a redstone event nearby
+                    pipeManager.scheduleSyncTick(this, REDSTONE_POLL_DELAY);
                     return;
                 }
             }
+            if (isSaturated(pipeManager.getGeneralConf())) {
+                // the items in front can't move on, so nothing is extracted until they do
+                pipeManager.scheduleSyncTick(this, EXTRACT_DELAY);
+                return;
+            }
             ItemStack item = container.extractItem(extractDirection, extractAmount.getAmount(), itemFilter);
             if (item != null) {
-                PipeItem pipeItem = new PipeItem(item, getWorld(), getBlockLoc(), extractDirection.getOpposite(), getBlockLoc(), extractMode);
-                pipeManager.spawnPipeItem(pipeItem);
-                pipeManager.putPipeItemInPipe(pipeItem);
+                if (batchItem != null && batchItem.isSimilar(item) && batchDirection == extractDirection.getOpposite()) {
+                    int added = Math.min(item.getAmount(), batchItem.getMaxStackSize() - batchItem.getAmount());
+                    batchItem.setAmount(batchItem.getAmount() + added);
+                    item.setAmount(item.getAmount() - added);
+                }
+                if (item.getAmount() > 0) {
+                    // the rest starts a new batch
+                    sendBatch(pipeManager);
+                    batchItem = item;
+                    batchDirection = extractDirection.getOpposite();
+                }
+                batchCycles++;
+                if (batchItem.getAmount() >= batchItem.getMaxStackSize() || batchCycles >= pipeManager.getGeneralConf().getExtractionBatchCycles()) {
+                    sendBatch(pipeManager);
+                }
+            }
+            else {
+                // the container is empty, so waiting for more items would only delay the collected ones
+                sendBatch(pipeManager);
             }
+            pipeManager.scheduleSyncTick(this, EXTRACT_DELAY);
+        }
+        else {
+            sendBatch(pipeManager);
         }
 
     }
 
+    /**
+     * puts the items collected in the current batch into this pipe as one pipe item
+     */
+    private void sendBatch(PipeManager pipeManager) {
+        if (batchItem == null) {
+            return;
+        }
+        PipeItem pipeItem = new PipeItem(batchItem, getWorld(), getBlockLoc(), batchDirection, getBlockLoc(), extractMode);
+        batchItem = null;
+        batchDirection = null;
+        batchCycles = 0;
+        pipeManager.spawnPipeItem(pipeItem);
+        pipeManager.putPipeItemInPipe(pipeItem);
+    }
+
+    @Override
+    public void scheduleWakeUps() {
+        super.scheduleWakeUps();
+        if (batchItem != null || extractDirection != null && extractCondition != ExtractCondition.NEVER_EXTRACT) {
+            getPipeManager().scheduleSyncTick(this, EXTRACT_DELAY);
+        }
+    }
+
     public void updateExtractDirection(boolean cycle) {
         TPDirection oldExtractDirection = getExtractDirection();
         Map<TPDirection, TransportPipesContainer> containerConnections = getContainerConnections();
@@ -94,6 +164,7 @@ public class ExtractionPipe extends Pipe {
             globalDuctManager.updateDuctInRenderSystems(this, true);
             settingsInv.populate();
         }
+        scheduleWakeUps();
     }
 
     public TPDirection getExtractDirection() {
@@ -102,6 +173,7 @@ public class ExtractionPipe extends Pipe {
 
     public void setExtractDirection(TPDirection extractDirection) {
         this.extractDirection = extractDirection;
+        scheduleWakeUps();
     }
 
     public ExtractCondition getExtractCondition() {
@@ -110,6 +182,7 @@ public class ExtractionPipe extends Pipe {
 
     public void setExtractCondition(ExtractCondition extractCondition) {
         this.extractCondition = extractCondition;
+        scheduleWakeUps();
     }
 
     public ExtractAmount getExtractAmount() {
@@ -172,6 +245,10 @@ public class ExtractionPipe extends Pipe {
     public List<ItemStack> destroyed(TransportPipes transportPipes, DuctManager<? extends Duct> ductManager, Player destroyer) {
         List<ItemStack> drop = super.destroyed(transportPipes, ductManager, destroyer);
         drop.addAll(itemFilter.getAsItemStacks());
+        if (batchItem != null) {
+            drop.add(batchItem);
+            batchItem = null;
+        }
         return drop;
     }
 
@@ -192,6 +269,11 @@ public class ExtractionPipe extends Pipe {
         CompoundTag itemFilterTag = new CompoundTag();
         itemFilter.saveToNBTTag(itemFilterTag, itemService);
         compoundTag.put("itemFilter", itemFilterTag);
+        ItemStack batchItem = this.batchItem;
+        if (batchItem != null) {
+            compoundTag.putString("batchItem", itemService.serializeItemStack(batchItem));
+            compoundTag.putInt("batchDir", batchDirection.ordinal());
+        }
 
     }
 
@@ -205,7 +287,12 @@ public class ExtractionPipe extends Pipe {
         extractMode = ExtractMode.values()[compoundTag.getInt("extractMode")];
         itemFilter = new ItemFilter();
         itemFilter.loadFromNBTTag(compoundTag.getCompoundTag("itemFilter"), itemService);
+        if (compoundTag.containsKey("batchItem")) {
+            batchItem = itemService.deserializeItemStack(compoundTag.getString("batchItem"));
+            batchDirection = TPDirection.values()[compoundTag.getInt("batchDir")];
+        }
 
         settingsInv.populate();
+        scheduleWakeUps();
     }
 }
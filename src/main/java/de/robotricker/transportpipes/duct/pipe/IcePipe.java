@@ -38,9 +38,11 @@ public class IcePipe extends Pipe {
     @Override
     protected Map<TPDirection, Integer> calculateItemDistribution(PipeItem pipeItem, TPDirection movingDir, List<TPDirection> dirs, TransportPipes transportPipes) {
         BlockLocation location = getBlockLoc();
-        TreeSet<TPDirection> newDirs = dirs.stream().filter(dir -> pipeItem.hasMovedDirs(location) && !pipeItem.getMovedDirs(location).contains(dir)).collect(Collectors.toCollection(TreeSet::new));
+        // only the directions towards a container or consuming pipe are taken, so the item doesn't run into dead ends
+        List<TPDirection> routedDirs = getRoutedDirs(dirs);
+        TreeSet<TPDirection> newDirs = routedDirs.stream().filter(dir -> pipeItem.hasMovedDirs(location) && !pipeItem.hasMovedDir(location, dir)).collect(Collectors.toCollection(TreeSet::new));
         if (newDirs.isEmpty()) {
-            newDirs = new TreeSet<TPDirection>(dirs);
+            newDirs = new TreeSet<TPDirection>(routedDirs);
         }
         
         // If we have more than one direction option, make sure we remove the opposite direction to prevent backtracking when possible
@@ -51,7 +53,7 @@ public class IcePipe extends Pipe {
         TreeMap<TPDirection, Integer> absWeights = new TreeMap<TPDirection, Integer>();
         TreeMap<TPDirection, Integer> origWeights = new TreeMap<TPDirection, Integer>();
         newDirs.stream().forEach(dir -> absWeights.put(dir, 1));
-        dirs.stream().forEach(dir -> {
+        routedDirs.stream().forEach(dir -> {
             if (dir != movingDir.getOpposite()) origWeights.put(dir, 1);
         });
 
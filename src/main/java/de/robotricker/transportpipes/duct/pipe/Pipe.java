@@ -1,6 +1,8 @@
 package de.robotricker.transportpipes.duct.pipe;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -23,7 +25,12 @@ import de.robotricker.transportpipes.duct.Duct;
 import de.robotricker.transportpipes.duct.manager.DuctManager;
 import de.robotricker.transportpipes.duct.manager.GlobalDuctManager;
 import de.robotricker.transportpipes.duct.manager.PipeManager;
+import de.robotricker.transportpipes.duct.manager.TickGroup;
+import de.robotricker.transportpipes.duct.network.DuctNetwork;
+import de.robotricker.transportpipes.duct.network.ExpressLane;
+import de.robotricker.transportpipes.duct.network.RoutingTable;
 import de.robotricker.transportpipes.duct.pipe.filter.ItemDistributorService;
+import de.robotricker.transportpipes.duct.pipe.items.ItemSimilarityKey;
 import de.robotricker.transportpipes.duct.pipe.items.PipeItem;
 import de.robotricker.transportpipes.duct.types.DuctType;
 import de.robotricker.transportpipes.duct.types.pipetype.PipeType;
@@ -38,18 +45,47 @@ import net.querz.nbt.tag.ListTag;
 public class Pipe extends Duct {
 
 	/**
-	 * THREAD-SAFE contains all the items that are inside this pipe and should be updated
+	 * ticks until the destinations of new unloaded items are checked once, in case their chunk was loaded in between
 	 */
-	private final ConcurrentLinkedQueue<PipeItem> items;
+	private static final long UNLOADED_ITEMS_DELAY = 10;
+	/**
+	 * ticks between two attempts to move the waiting items on
+	 */
+	private static final long WAITING_ITEMS_DELAY = 10;
+	/**
+	 * attempts of an item to leave a pipe into a full pipe before it is sent back, so two full pipes whose items want
+	 * into each other don't wait for each other forever
+	 */
+	private static final int MAX_BORDER_WAITS = 10;
+	/**
+	 * tolerance for rounding errors when comparing simulated times
+	 */
+	private static final double EVENT_TIME_EPSILON = 1e-9;
+
+	/**
+	 * the items are not moved every tick. Every item knows when it started its current transit segment, so the pipe only
+	 * has to be ticked when an item reaches the middle or the border of the pipe, or while players see the items.
+	 * This pipe is ticked in the next tick as long as this is true.
+	 */
+	private volatile boolean needsTick;
+
+	/**
+	 * contains all the items that are inside this pipe and should be updated. Only the tick thread changes the items:
+	 * it reads the current list, appends the items which stay in this pipe to a new one and swaps them. A published list
+	 * is never changed again, so other threads can iterate it without locking.
+	 */
+	private volatile List<PipeItem> items;
 	/**
 	 * THREAD-SAFE contains all the items that are just put inside this pipe and should be updated and put into the
-	 * items list the next tick
+	 * items list the next tick. This is the only way for other threads to put items into this pipe.
 	 */
 	private final ConcurrentLinkedQueue<PipeItem> futureItems;
 
 	/**
 	 * THREAD-SAFE contains all the items that could not be put into the next pipe or container because it is inside an
-	 * unloaded chunk. As the next pipe / container gets loaded again, these items get put into it one by one.
+	 * unloaded chunk. They are indexed by the chunk of their destination in the {@link PipeManager}. As the chunk gets
+	 * loaded again, all items waiting for it are put into their pipe / container at once inside
+	 * {@link #releaseUnloadedItems(PipeManager, int, int)}.
 	 * <p />
 	 * <p />
 	 * This means that all of the pipeItems inside this list have got a blockLocation which differs from this pipe's
@@ -57,15 +93,49 @@ public class Pipe extends Duct {
 	 * pipe.
 	 */
 	private final ConcurrentLinkedDeque<PipeItem> unloadedItems;
+	/**
+	 * THREAD-SAFE contains all the items that wait in the middle or at the border of this pipe because there is no
+	 * space in the next container or pipe. They don't move and are retried inside
+	 * {@link #scheduledTick(TransportPipes, DuctManager, GeneralConf)}.
+	 */
+	private final ConcurrentLinkedQueue<PipeItem> waitingItems;
+	/**
+	 * the amount of items, futureItems and waitingItems of this pipe before the current tick phase. Neighbors read this
+	 * instead of the live collections, which may be changed by another region at the same time.
+	 */
+	private volatile int itemCountSnapshot;
+	/**
+	 * THREAD-SAFE contains all the items that skip the {@link ExpressLane} this pipe is the last pipe of, in the order of
+	 * their arrival. Their segment starts at the time they arrive at the border of this pipe.
+	 */
+	private final ConcurrentLinkedQueue<PipeItem> laneItems;
+	/**
+	 * the item per moving direction and similarity key which the next similar futureItem is merged into. The entries
+	 * are not removed when an item leaves the pipe, so they are checked before merging.
+	 * Only accessed by the tick thread and created on the first merge.
+	 */
+	private EnumMap<TPDirection, Map<ItemSimilarityKey, PipeItem>> mergeableItems;
+	/**
+	 * the straight run this pipe belongs to or null, only set by the
+	 * {@link de.robotricker.transportpipes.duct.network.DuctNetworkIndex}
+	 */
+	private volatile ExpressLane expressLane;
+	/**
+	 * whether the laneItems have to be put back into the pipes they would be in by now
+	 */
+	private volatile boolean expandLaneItems;
 
 	ItemDistributorService itemDistributor;
 	private ConcurrentHashMap<TPDirection, TransportPipesContainer> connectedContainers;
+	private volatile int distributionCounter;
 
 	public Pipe(DuctType ductType, BlockLocation blockLoc, World world, Chunk chunk, DuctSettingsInventory settingsInv, GlobalDuctManager globalDuctManager, ItemDistributorService itemDistributor) {
 		super(ductType, blockLoc, world, chunk, settingsInv, globalDuctManager);
-		this.items = new ConcurrentLinkedQueue<>();
+		this.items = new ArrayList<>();
 		this.futureItems = new ConcurrentLinkedQueue<>();
 		this.unloadedItems = new ConcurrentLinkedDeque<>();
+		this.laneItems = new ConcurrentLinkedQueue<>();
+		this.waitingItems = new ConcurrentLinkedQueue<>();
 		this.itemDistributor = itemDistributor;
 
 		this.connectedContainers = new ConcurrentHashMap<>();
@@ -82,8 +152,11 @@ public class Pipe extends Duct {
 		return allConnections;
 	}
 
-	public ConcurrentLinkedQueue<PipeItem> getItems() {
-		return items;
+	/**
+	 * the current items of this pipe. Use {@link #putPipeItem(PipeItem)} to put new items into this pipe.
+	 */
+	public List<PipeItem> getItems() {
+		return Collections.unmodifiableList(items);
 	}
 
 	public ConcurrentLinkedQueue<PipeItem> getFutureItems() {
@@ -94,237 +167,703 @@ public class Pipe extends Duct {
 		return unloadedItems;
 	}
 
+	public ConcurrentLinkedQueue<PipeItem> getWaitingItems() {
+		return waitingItems;
+	}
+
+	/**
+	 * whether this pipe held at least max_items_per_pipe items before the current tick phase, so no more items should be
+	 * put into it
+	 */
+	public boolean isSaturated(GeneralConf generalConf) {
+		return itemCountSnapshot >= generalConf.getMaxItemsPerPipe();
+	}
+
+	/**
+	 * records the current amount of items for {@link #isSaturated(GeneralConf)}. Only called by the tick thread
+	 * between two tick phases.
+	 */
+	public void updateItemCountSnapshot() {
+		itemCountSnapshot = items.size() + futureItems.size() + waitingItems.size();
+	}
+
+	public ConcurrentLinkedQueue<PipeItem> getLaneItems() {
+		return laneItems;
+	}
+
+	/**
+	 * adds a pipeItem which is skipping the express lane ending in this pipe. Use
+	 * {@link PipeManager#handOverLaneItem(Pipe, PipeItem)} while ticking.
+	 */
+	public void putLaneItem(PipeItem pipeItem) {
+		laneItems.add(pipeItem);
+	}
+
+	public ExpressLane getExpressLane() {
+		return expressLane;
+	}
+
+	public void setExpressLane(ExpressLane expressLane) {
+		this.expressLane = expressLane;
+	}
+
+	/**
+	 * THREAD-SAFE puts the laneItems back into the pipes they would be in by now in the next tick, e.g. because a player
+	 * can see the lane or the lane was removed
+	 */
+	public void requestLaneExpansion() {
+		if (!laneItems.isEmpty()) {
+			expandLaneItems = true;
+			getPipeManager().markPipeHot(this);
+		}
+	}
+
+	/**
+	 * the round robin position of the item distribution inside this pipe
+	 */
+	public int getDistributionCounter() {
+		return distributionCounter;
+	}
+
+	public void setDistributionCounter(int distributionCounter) {
+		this.distributionCounter = distributionCounter;
+	}
+
+	/**
+	 * whether this pipe has more than two connections. Only junctions are recorded in the routing memory of the items.
+	 */
+	public boolean isJunction() {
+		return getDuctConnections().size() + connectedContainers.size() > 2;
+	}
+
+	/**
+	 * the given directions reduced to the next hops towards the destinations of the network of this pipe, see
+	 * {@link RoutingTable#getNextHops(Pipe, List)}
+	 */
+	protected List<TPDirection> getRoutedDirs(List<TPDirection> dirs) {
+		DuctNetwork network = getNetwork();
+		return network != null ? network.getRoutingTable().getNextHops(this, dirs) : dirs;
+	}
+
 	public void putPipeItem(PipeItem pipeItem) {
 		futureItems.add(pipeItem);
+		getPipeManager().markPipeHot(this);
+	}
+
+	protected PipeManager getPipeManager() {
+		return (PipeManager) getDuctType().getBaseDuctType().getDuctManager();
+	}
+
+	/**
+	 * whether this pipe still has something to do inside its tick, i.e. it has to stay hot
+	 */
+	public boolean hasPendingWork() {
+		return needsTick || !futureItems.isEmpty();
+	}
+
+	@Override
+	public void scheduleWakeUps() {
+		super.scheduleWakeUps();
+		if (!unloadedItems.isEmpty()) {
+			getPipeManager().scheduleSyncTick(this, UNLOADED_ITEMS_DELAY);
+		}
+		if (!laneItems.isEmpty()) {
+			getPipeManager().markPipeHot(this);
+		}
+		if (!waitingItems.isEmpty()) {
+			getPipeManager().scheduleTick(this, WAITING_ITEMS_DELAY);
+		}
 	}
 
+	/**
+	 * decides in the main thread where the given item in the middle of this pipe goes, because it has no direction to
+	 * go to. If there is still none after forgetting its moved directions, it is sent back.
+	 */
+	private void bounceItem(TransportPipes transportPipes, PipeItem pipeItem) {
+		List<TPDirection> possibleMovingDirs = new ArrayList<>(getAllConnections());
+		transportPipes.runTaskSync(() -> {
+
+            pipeItem.removeMovedDir(getBlockLoc());
+            Map<TPDirection, Integer> newDistribution = calculateItemDistribution(pipeItem, pipeItem.getMovingDir(), possibleMovingDirs, transportPipes);
+            if (newDistribution == null || newDistribution.isEmpty()) {
+                pipeItem.setMovingDir(pipeItem.getMovingDir().getOpposite());
+            }
+            else if (isJunction()) {
+                pipeItem.addMovedDir(getBlockLoc(), pipeItem.getMovingDir().getOpposite());
+            }
+		});
+	}
+
+	/**
+	 * stops the given item where it is until the next attempt to move it on
+	 */
+	private void addWaitingItem(PipeManager pipeManager, PipeItem pipeItem) {
+		pipeItem.resetSegment();
+		waitingItems.add(pipeItem);
+		pipeManager.scheduleTick(this, WAITING_ITEMS_DELAY);
+	}
+
+	@Override
+	public void scheduledTick(TransportPipes transportPipes, DuctManager<? extends Duct> ductManager, GeneralConf generalConf) {
+		super.scheduledTick(transportPipes, ductManager, generalConf);
+
+		PipeManager pipeManager = (PipeManager) ductManager;
+		double time = getTickGroup().getTime();
+		List<PipeItem> nextItems = null;
+		for (int i = waitingItems.size(); i > 0; i--) {
+			PipeItem pipeItem = waitingItems.poll();
+			if (pipeItem == null) {
+				break;
+			}
+			if (pipeItem.getRelativeLocation().isMiddle()) {
+				// distribute the item again, it waits if there is still no space
+				Map<TPDirection, Integer> distribution = calculateItemDistribution(pipeItem, pipeItem.getMovingDir(), new ArrayList<>(getAllConnections()), transportPipes);
+				if (distribution != null) {
+					distribution.values().removeIf(amount -> amount <= 0);
+				}
+				if (distribution == null) {
+					pipeManager.despawnPipeItem(pipeItem);
+					continue;
+				}
+				if (distribution.isEmpty() && pipeItem.isBlockedByFullDestination()) {
+					waitingItems.add(pipeItem);
+					continue;
+				}
+				if (nextItems == null) {
+					nextItems = new ArrayList<>(items);
+				}
+				if (distribution.isEmpty()) {
+					// the destinations are gone, so the item is sent back like any item without a direction
+					pipeItem.startSegment(time);
+					nextItems.add(pipeItem);
+					bounceItem(transportPipes, pipeItem);
+					continue;
+				}
+				applyDistribution(pipeManager, pipeItem, distribution, time, nextItems);
+			}
+			else {
+				// the item arrives at the border again right away and tries to leave the pipe
+				pipeItem.startSegment(time);
+				if (nextItems == null) {
+					nextItems = new ArrayList<>(items);
+				}
+				nextItems.add(pipeItem);
+			}
+		}
+		if (nextItems != null) {
+			items = nextItems;
+			pipeManager.markPipeHot(this);
+		}
+		if (!waitingItems.isEmpty()) {
+			pipeManager.scheduleTick(this, WAITING_ITEMS_DELAY);
+		}
+	}
+
+	/**
+	 * the distance an item moves per base tick, see {@link de.robotricker.transportpipes.TickRateController}
+	 */
 	double getPipeItemSpeed() {
 		return 0.125d;
 	}
 
+	private TickGroup getTickGroup() {
+		return globalDuctManager.getTickGroup(getWorld());
+	}
+
+	/**
+	 * moves the given item to the position it has reached by now, e.g. before it is shown to a player
+	 */
+	public void updateItemPosition(PipeItem pipeItem) {
+		if (pipeItem.hasSegment()) {
+			pipeItem.advanceTo(getTickGroup().getTime(), getPipeItemSpeed());
+			pipeItem.resetOldRelativeLocation();
+		}
+	}
+
+	/**
+	 * moves the given item from the middle of this pipe, the entry of the given lane, to the border of the exit of the
+	 * lane. It waits in the laneItems of the exit until it would have arrived there.
+	 */
+	private void enterLane(PipeManager pipeManager, PipeItem pipeItem, ExpressLane lane, double eventTime, double time) {
+		TPDirection dir = pipeItem.getMovingDir();
+		Pipe exit = lane.getExit(dir);
+		// half of this pipe and all pipes between this pipe and the exit
+		double arrivalTime = eventTime + (lane.getPipes().size() - 1.5d) / getPipeItemSpeed();
+
+		// the pipes of a lane are no junctions, so there is no routing memory to record
+		pipeItem.setBlockLoc(exit.getBlockLoc());
+		pipeItem.getRelativeLocation().setMiddle().setLong(dir, isPositive(dir) ? 0 : RelativeLocation.PRECISION);
+		pipeItem.resetOldRelativeLocation();
+		pipeItem.startSegment(arrivalTime);
+
+		pipeManager.handOverLaneItem(exit, pipeItem);
+		pipeManager.scheduleTransitTick(exit, (long) Math.ceil(arrivalTime - time - EVENT_TIME_EPSILON));
+	}
+
+	/**
+	 * moves the laneItems which arrived at this pipe into the items, or all of them back into the pipes they would be in
+	 * by now if an expansion was requested
+	 */
+	private void releaseLaneItems(TransportPipes transportPipes, PipeManager pipeManager, List<PipeItem> nextItems) {
+		double time = getTickGroup().getTime();
+		boolean expand = expandLaneItems;
+		expandLaneItems = false;
+		PipeItem laneItem;
+		while ((laneItem = laneItems.peek()) != null) {
+			boolean arrived = laneItem.getSegmentStart() <= time + EVENT_TIME_EPSILON;
+			if (!arrived && !expand) {
+				break;
+			}
+			if (!laneItems.remove(laneItem)) {
+				continue;
+			}
+			if (arrived) {
+				nextItems.add(laneItem);
+			}
+			else {
+				expandLaneItem(transportPipes, pipeManager, laneItem, time);
+			}
+		}
+	}
+
+	/**
+	 * puts the given laneItem into the pipe of the lane it would be in at the given time. If there is no pipe anymore,
+	 * the item gets dropped.
+	 */
+	private void expandLaneItem(TransportPipes transportPipes, PipeManager pipeManager, PipeItem laneItem, double time) {
+		TPDirection dir = laneItem.getMovingDir();
+		// the distance to the border of this pipe in blocks
+		double distance = (laneItem.getSegmentStart() - time) * getPipeItemSpeed();
+		int blocks = (int) Math.ceil(distance);
+		BlockLocation location = new BlockLocation(getBlockLoc().getX() - dir.getX() * blocks, getBlockLoc().getY() - dir.getY() * blocks, getBlockLoc().getZ() - dir.getZ() * blocks);
+
+		Duct duct = globalDuctManager.getDuctAtLoc(getWorld(), location);
+		if (!(duct instanceof Pipe)) {
+			transportPipes.runTaskSync(() -> getWorld().dropItem(location.toLocation(getWorld()), laneItem.getItem()));
+			return;
+		}
+
+		long moved = Math.round((blocks - distance) * RelativeLocation.PRECISION);
+		laneItem.setBlockLoc(location);
+		laneItem.getRelativeLocation().setMiddle().setLong(dir, isPositive(dir) ? moved : RelativeLocation.PRECISION - moved);
+		laneItem.resetOldRelativeLocation();
+		laneItem.startSegment(time);
+		pipeManager.spawnPipeItem(laneItem);
+		// the pipe may lie inside another tick region
+		pipeManager.handOverPipeItem((Pipe) duct, laneItem);
+	}
+
+	/**
+	 * the item of this pipe the given futureItem can be merged into or null
+	 */
+	private PipeItem getMergeableItem(PipeItem futureItem) {
+		if (mergeableItems == null) {
+			return null;
+		}
+		Map<ItemSimilarityKey, PipeItem> dirItems = mergeableItems.get(futureItem.getMovingDir());
+		PipeItem pipeItem = dirItems != null ? dirItems.get(futureItem.getSimilarityKey()) : null;
+		// the item may have left this pipe, turned around or been filled up in the meantime. Items with a container
+		// reservation are not merged, because their reserved amount would not match their amount anymore.
+		if (pipeItem == null || pipeItem == futureItem || pipeItem.getMovingDir() != futureItem.getMovingDir() || !pipeItem.getBlockLoc().equals(getBlockLoc())
+				|| pipeItem.getItem().getAmount() >= pipeItem.getItem().getMaxStackSize()
+				|| pipeItem.getReservedContainer() != null || futureItem.getReservedContainer() != null) {
+			return null;
+		}
+		return pipeItem;
+	}
+
+	private void putMergeableItem(PipeItem pipeItem) {
+		if (mergeableItems == null) {
+			mergeableItems = new EnumMap<>(TPDirection.class);
+		}
+		mergeableItems.computeIfAbsent(pipeItem.getMovingDir(), dir -> new HashMap<>()).put(pipeItem.getSimilarityKey(), pipeItem);
+	}
+
+	/**
+	 * has to be called if the given item is removed from this pipe without leaving it
+	 */
+	private void removeMergeableItem(PipeItem pipeItem) {
+		if (mergeableItems != null) {
+			Map<ItemSimilarityKey, PipeItem> dirItems = mergeableItems.get(pipeItem.getMovingDir());
+			if (dirItems != null) {
+				dirItems.remove(pipeItem.getSimilarityKey(), pipeItem);
+			}
+		}
+	}
+
+	/**
+	 * splits the given item, which is in the middle of this pipe, into the given directions and appends all parts to
+	 * the given list. The parts leave the middle at the given time.
+	 * @return the last part
+	 */
+	private PipeItem applyDistribution(PipeManager pipeManager, PipeItem pipeItem, Map<TPDirection, Integer> distribution, double time, List<PipeItem> nextItems) {
+		PipeItem tempPipeItem = null;
+		BlockLocation location = getBlockLoc();
+		boolean junction = isJunction();
+		for (TPDirection dir : distribution.keySet()) {
+			int amount = distribution.get(dir);
+			if (tempPipeItem == null) {
+				tempPipeItem = pipeItem;
+			}
+			else {
+				tempPipeItem = new PipeItem(pipeItem.getItem().clone(), getWorld(), location, dir);
+			}
+			tempPipeItem.getItem().setAmount(amount);
+			if (junction) {
+				tempPipeItem.addMovedDir(location, dir);
+			}
+			tempPipeItem.setMovingDir(dir);
+			tempPipeItem.getRelativeLocation().setMiddle();
+			tempPipeItem.resetOldRelativeLocation();
+			tempPipeItem.startSegment(time);
+			TransportPipesContainer container = connectedContainers.get(dir);
+			if (container != null) {
+				pipeManager.getReservationLedger().reserve(tempPipeItem, container);
+			}
+			nextItems.add(tempPipeItem);
+			if (tempPipeItem != pipeItem) {
+				pipeManager.spawnPipeItem(tempPipeItem);
+			}
+		}
+		return tempPipeItem;
+	}
+
+	private static boolean isPositive(TPDirection dir) {
+		return dir.getX() + dir.getY() + dir.getZ() > 0;
+	}
+
 	@Override
-	public void tick(boolean bigTick, TransportPipes transportPipes, DuctManager<? extends Duct> ductManager, GeneralConf generalConf) {
-		super.tick(bigTick, transportPipes, ductManager, generalConf);
+	public void tick(TransportPipes transportPipes, DuctManager<? extends Duct> ductManager, GeneralConf generalConf) {
+		super.tick(transportPipes, ductManager, generalConf);
+
+		if (laneItems.isEmpty() && futureItems.isEmpty()) {
+			return;
+		}
+		List<PipeItem> nextItems = new ArrayList<>(items);
+
+		if (!laneItems.isEmpty()) {
+			releaseLaneItems(transportPipes, (PipeManager) ductManager, nextItems);
+		}
 
         // activate futureItems
         Iterator<PipeItem> futureItemsIt = getFutureItems().iterator();
-        outer: while (futureItemsIt.hasNext()) {
+        while (futureItemsIt.hasNext()) {
             PipeItem futureItem = futureItemsIt.next();
             if (generalConf.getMergePipeItems()) {
-                for (PipeItem nextPipeItem : getItems()) {
-                    if (nextPipeItem.getItem().isSimilar(futureItem.getItem()) && nextPipeItem.getMovingDir() == futureItem.getMovingDir()) {
-                        nextPipeItem.getItem().setAmount(nextPipeItem.getItem().getAmount() + futureItem.getItem().getAmount());
-                        int difference = nextPipeItem.getItem().getAmount() - nextPipeItem.getItem().getMaxStackSize();
-                        if (difference <= 0) {
-                            ((PipeManager) ductManager).despawnPipeItem(futureItem);
-                            futureItemsIt.remove();
-                            continue outer;
-                        }
-                        else {
-                            nextPipeItem.getItem().setAmount(nextPipeItem.getItem().getMaxStackSize());
-                            futureItem.getItem().setAmount(difference);
-                        }
+                PipeItem nextPipeItem = getMergeableItem(futureItem);
+                if (nextPipeItem != null) {
+                    nextPipeItem.getItem().setAmount(nextPipeItem.getItem().getAmount() + futureItem.getItem().getAmount());
+                    int difference = nextPipeItem.getItem().getAmount() - nextPipeItem.getItem().getMaxStackSize();
+                    if (difference <= 0) {
+                        ((PipeManager) ductManager).despawnPipeItem(futureItem);
+                        futureItemsIt.remove();
+                        continue;
+                    }
+                    else {
+                        nextPipeItem.getItem().setAmount(nextPipeItem.getItem().getMaxStackSize());
+                        futureItem.getItem().setAmount(difference);
                     }
                 }
+                // the merged item is full now, so the next similar items are merged into this one
+                putMergeableItem(futureItem);
             }
-            getItems().add(futureItem);
+            nextItems.add(futureItem);
             futureItemsIt.remove();
         }
-
-		// extract items from unloaded list and put into next pipe
-		if (bigTick) {
-            if (!getUnloadedItems().isEmpty()) {
-                PipeItem unloadedItem = getUnloadedItems().getLast();
-                Duct newPipe = globalDuctManager.getDuctAtLoc(getWorld(), unloadedItem.getBlockLoc());
-                if (newPipe instanceof Pipe && newPipe.isInLoadedChunk()) {
-                    ((Pipe) newPipe).getItems().add(unloadedItem);
-                    getUnloadedItems().removeLast();
-                }
-            }
-		}
+        items = nextItems;
 
 	}
 
 	@Override
-	public void postTick(boolean bigTick, TransportPipes transportPipes, DuctManager<? extends Duct> ductManager, GeneralConf generalConf) {
-		super.postTick(bigTick, transportPipes, ductManager, generalConf);
+	public void postTick(TransportPipes transportPipes, DuctManager<? extends Duct> ductManager, GeneralConf generalConf) {
+		super.postTick(transportPipes, ductManager, generalConf);
         
 		PipeManager pipeManager = (PipeManager) ductManager;
-		if (items.size() > generalConf.getMaxItemsPerPipe()) {
-			transportPipes.runTaskAsync(() -> {
-				globalDuctManager.unregisterDuct(this);
-				globalDuctManager.unregisterDuctInRenderSystem(this, true);
-				globalDuctManager.updateNeighborDuctsConnections(this);
-				globalDuctManager.updateNeighborDuctsInRenderSystems(this, true);
-				globalDuctManager.playDuctDestroyActions(this, null);
-			}, 0L);
-			return;
-		}
 
-        List<PipeItem> copiedItems = new ArrayList<PipeItem>(items);
-		int itemCount = copiedItems.size();
-		for (int i = copiedItems.size() - 1; i >= 0; i--) {
-			PipeItem pipeItem = copiedItems.get(i);
+		TickGroup tickGroup = getTickGroup();
+		double time = tickGroup.getTime();
+		double speed = getPipeItemSpeed();
+		PipeItem nextLaneItem = laneItems.peek();
+		double nextEventTime = nextLaneItem != null ? nextLaneItem.getSegmentStart() : Double.POSITIVE_INFINITY;
 
-			long factor = (long) (getPipeItemSpeed() * RelativeLocation.PRECISION);
-			pipeItem.getRelativeLocation().add(pipeItem.getMovingDir().getX() * factor, pipeItem.getMovingDir().getY() * factor, pipeItem.getMovingDir().getZ() * factor);
-			pipeManager.updatePipeItemPosition(pipeItem);
-			pipeItem.resetOldRelativeLocation();
+        if (items.isEmpty()) {
+            needsTick = false;
+            if (nextLaneItem != null) {
+                pipeManager.scheduleTransitTick(this, (long) Math.ceil(nextEventTime - time - EVENT_TIME_EPSILON));
+            }
+            return;
+        }
 
-			if (pipeItem.getRelativeLocation().isEquals(0.5d, 0.5d, 0.5d)) {
+		// the positions only have to be updated every tick while players see the items
+		boolean shown = pipeManager.isPipeShown(this);
+		ExpressLane lane = expressLane;
+
+		// the items which stay in this pipe are appended to the next list, the others are just not taken over. Items
+		// which reach another event inside this tick are handled again, so a tick spanning several segments doesn't
+		// slow them down
+		List<PipeItem> currentItems = items;
+		List<PipeItem> nextItems;
+		boolean eventsLeft;
+		do {
+			nextItems = new ArrayList<>(currentItems.size());
+			eventsLeft = false;
+			nextEventTime = nextLaneItem != null ? nextLaneItem.getSegmentStart() : Double.POSITIVE_INFINITY;
+			for (PipeItem pipeItem : currentItems) {
+
+				if (!pipeItem.hasSegment()) {
+					pipeItem.startSegment(time);
+				}
+				double eventTime = pipeItem.getSegmentEndTime(speed);
+				boolean arrived = eventTime <= time + EVENT_TIME_EPSILON;
+				if (!arrived && !shown) {
+					nextEventTime = Math.min(nextEventTime, eventTime);
+					nextItems.add(pipeItem);
+					continue;
+				}
 
-				// arrival at middle
+				pipeItem.advanceTo(arrived ? eventTime : time, speed);
+				if (shown) {
+					pipeManager.updatePipeItemPosition(pipeItem);
+				}
+				pipeItem.resetOldRelativeLocation();
+				if (!arrived) {
+					nextEventTime = Math.min(nextEventTime, eventTime);
+					nextItems.add(pipeItem);
+					continue;
+				}
 
-				// calculate possible moving directions
-				List<TPDirection> possibleMovingDirs = new ArrayList<>(getAllConnections());
+				if (pipeItem.getRelativeLocation().isMiddle()) {
 
-				Map<TPDirection, Integer> distribution = calculateItemDistribution(pipeItem, pipeItem.getMovingDir(), possibleMovingDirs, transportPipes);
-				if (distribution == null || distribution.isEmpty()) {
-					if (distribution != null) {
-						transportPipes.runTaskSync(() -> {
-
-                            pipeItem.removeMovedDir(getBlockLoc());
-                            Map<TPDirection, Integer> newDistribution = calculateItemDistribution(pipeItem, pipeItem.getMovingDir(), possibleMovingDirs, transportPipes);
-                            if (newDistribution.isEmpty()) {
-                                pipeItem.setMovingDir(pipeItem.getMovingDir().getOpposite());
-                            }
-                            else {
-                                pipeItem.addMovedDir(getBlockLoc(), pipeItem.getMovingDir().getOpposite());
-                            }
-						});
-					}
-					else {
-                        items.remove(pipeItem);
-                        pipeManager.despawnPipeItem(pipeItem);
-                        // drop item
-                        //transportPipes.runTaskSync(() -> {
-                        //    pipeItem.getWorld().dropItem(pipeItem.getBlockLoc().getNeighbor(pipeItem.getMovingDir()).toLocation(pipeItem.getWorld()), pipeItem.getItem());
-                        //});
-    					continue;
+					// arrival at middle
+					pipeItem.startSegment(eventTime);
+
+					if (lane != null && lane.getEntry(pipeItem.getMovingDir()) == this && !lane.getExit(pipeItem.getMovingDir()).isSaturated(generalConf) && !pipeManager.isLaneShown(lane)) {
+						// nobody sees the lane, so the item skips it and waits at its exit until it would have arrived there
+						pipeManager.despawnPipeItem(pipeItem);
+						enterLane(pipeManager, pipeItem, lane, eventTime, time);
+						continue;
 					}
-				}
 
-				ItemStack itemStack = pipeItem.getItem().clone();
+					// calculate possible moving directions
+					List<TPDirection> possibleMovingDirs = new ArrayList<>(getAllConnections());
 
-				PipeItem tempPipeItem = null;
-				BlockLocation location = getBlockLoc();
-				for (TPDirection dir : distribution.keySet()) {
-					int amount = distribution.get(dir);
-					if (tempPipeItem == null) {
-						tempPipeItem = pipeItem;
+					Map<TPDirection, Integer> distribution = calculateItemDistribution(pipeItem, pipeItem.getMovingDir(), possibleMovingDirs, transportPipes);
+					if (distribution != null) {
+						// directions which receive nothing don't get an item
+						distribution.values().removeIf(amount -> amount <= 0);
 					}
-					else {
-						tempPipeItem = new PipeItem(itemStack.clone(), getWorld(), location, dir);
+					if (distribution != null && distribution.isEmpty() && pipeItem.isBlockedByFullDestination() && waitingItems.size() < generalConf.getMaxItemsPerPipe()) {
+						// the destinations have no space left, so the item waits in the middle of this pipe
+						addWaitingItem(pipeManager, pipeItem);
+						continue;
 					}
-					tempPipeItem.getItem().setAmount(amount);
-					tempPipeItem.addMovedDir(location, dir);
-					tempPipeItem.setMovingDir(dir);
-					tempPipeItem.getRelativeLocation().set(0.5d, 0.5d, 0.5d);
-					tempPipeItem.resetOldRelativeLocation();
-					if (!items.contains(tempPipeItem)) {
-						items.add(tempPipeItem);
-						pipeManager.spawnPipeItem(tempPipeItem);
+					if (distribution == null || distribution.isEmpty()) {
+						if (distribution != null) {
+							bounceItem(transportPipes, pipeItem);
+							// the item stays in the middle until the sync task decided where it goes
+							nextItems.add(pipeItem);
+							nextEventTime = Math.min(nextEventTime, pipeItem.getSegmentEndTime(speed));
+							continue;
+						}
+						else {
+	                        removeMergeableItem(pipeItem);
+	                        pipeManager.despawnPipeItem(pipeItem);
+	                        // drop item
+	                        //transportPipes.runTaskSync(() -> {
+	                        //    pipeItem.getWorld().dropItem(pipeItem.getBlockLoc().getNeighbor(pipeItem.getMovingDir()).toLocation(pipeItem.getWorld()), pipeItem.getItem());
+	                        //});
+	    					continue;
+						}
 					}
-				}
-			}
-			else if (pipeItem.getRelativeLocation().isXEquals(0d) || pipeItem.getRelativeLocation().isYEquals(0d) || pipeItem.getRelativeLocation().isZEquals(0d)
-					|| pipeItem.getRelativeLocation().isXEquals(1d) || pipeItem.getRelativeLocation().isYEquals(1d) || pipeItem.getRelativeLocation().isZEquals(1d)) {
-				// arrival at end of pipe
-
-				Duct duct = getDuctConnections().get(pipeItem.getMovingDir());
-				TransportPipesContainer transportPipesContainer = getContainerConnections().get(pipeItem.getMovingDir());
 
-				if (duct instanceof Pipe) {
-
-					Pipe pipe = (Pipe) duct;
-					BlockLocation location = pipe.getBlockLoc();
-
-					// make pipe item ready for next pipe
-					pipeItem.setBlockLoc(location);
-					if (!pipeItem.hasSourceDir(location)) {
-						pipeItem.addSourceDir(location, pipeItem.getMovingDir().getOpposite());
-					}
-					pipeItem.addMovedDir(location, pipeItem.getMovingDir().getOpposite());
-					pipeItem.getRelativeLocation().switchValues();
-					pipeItem.resetOldRelativeLocation();
-
-					// remove from current pipe and add to new one
-					items.remove(pipeItem);
-					if (pipe.isInLoadedChunk()) {
-						pipe.putPipeItem(pipeItem);
+					applyDistribution(pipeManager, pipeItem, distribution, eventTime, nextItems);
+					// the split parts all leave the middle at the same time
+					nextEventTime = Math.min(nextEventTime, pipeItem.getSegmentEndTime(speed));
+					eventsLeft |= pipeItem.getSegmentEndTime(speed) <= time + EVENT_TIME_EPSILON;
+				}
+				else if (pipeItem.getRelativeLocation().isOnBorder()) {
+					// arrival at end of pipe
+
+					Duct duct = getDuctConnections().get(pipeItem.getMovingDir());
+					TransportPipesContainer transportPipesContainer = getContainerConnections().get(pipeItem.getMovingDir());
+					if (transportPipesContainer == null) {
+						// the container the item was sent to is gone
+						pipeManager.getReservationLedger().release(pipeItem);
 					}
-					else {
-						unloadedItems.add(pipeItem);
+
+					if (duct instanceof Pipe && ((Pipe) duct).isSaturated(generalConf)) {
+						if (waitingItems.size() < generalConf.getMaxItemsPerPipe() && pipeItem.getBorderWaits() < MAX_BORDER_WAITS) {
+							// the next pipe is full, so the item waits at the border until it has space again
+							pipeItem.setBorderWaits(pipeItem.getBorderWaits() + 1);
+							addWaitingItem(pipeManager, pipeItem);
+						}
+						else {
+							// it waited too long or there is no space to wait, so it is sent back instead of overfilling the next pipe
+							pipeItem.setBorderWaits(0);
+							pipeItem.setMovingDir(pipeItem.getMovingDir().getOpposite());
+							pipeItem.startSegment(eventTime);
+							nextItems.add(pipeItem);
+							nextEventTime = Math.min(nextEventTime, pipeItem.getSegmentEndTime(speed));
+							eventsLeft |= pipeItem.getSegmentEndTime(speed) <= time + EVENT_TIME_EPSILON;
+						}
 					}
-				}
-				else {
-					items.remove(pipeItem);
-					pipeManager.despawnPipeItem(pipeItem);
+					else if (duct instanceof Pipe) {
 
-					if (transportPipesContainer != null) {
+						Pipe pipe = (Pipe) duct;
+						BlockLocation location = pipe.getBlockLoc();
+						pipeItem.setBorderWaits(0);
 
-						pipeItem.setBlockLoc(getBlockLoc().getNeighbor(pipeItem.getMovingDir()));
+						// make pipe item ready for next pipe
+						pipeItem.setBlockLoc(location);
+						if (pipe.isJunction()) {
+							pipeItem.addMovedDir(location, pipeItem.getMovingDir().getOpposite());
+						}
 						pipeItem.getRelativeLocation().switchValues();
 						pipeItem.resetOldRelativeLocation();
-
-						transportPipes.runTaskSync(() -> {
-							if (transportPipesContainer.isInLoadedChunk()) {
-
-								ItemStack overflow = transportPipesContainer.insertItem(pipeItem.getMovingDir(), pipeItem.getItem());
-								if (overflow != null) {
-									// getWorld().dropItem(getBlockLoc().toLocation(getWorld()), overflow);
-									pipeItem.getItem().setAmount(overflow.getAmount());
-									pipeItem.setMovingDir(pipeItem.getMovingDir().getOpposite());
-									pipeItem.setBlockLoc(this.getBlockLoc());
-									pipeItem.getRelativeLocation().switchValues();
-									pipeItem.resetOldRelativeLocation();
-									pipeManager.spawnPipeItem(pipeItem);
-									this.putPipeItem(pipeItem);
-								}
-							}
-							else {
-								unloadedItems.add(pipeItem);
-							}
-						});
+						// the item keeps its timing in the next pipe, so no time gets lost at the border
+						pipeItem.startSegment(eventTime);
+
+						// add to new one, it is not taken over into the next items of this pipe
+						if (pipe.isInLoadedChunk()) {
+							pipeManager.handOverPipeItem(pipe, pipeItem);
+						}
+						else {
+							addUnloadedItem(pipeManager, pipeItem);
+						}
 					}
 					else {
-						// drop item
-						transportPipes.runTaskSync(() -> {
-							pipeItem.getWorld().dropItem(pipeItem.getBlockLoc().getNeighbor(pipeItem.getMovingDir()).toLocation(pipeItem.getWorld()), pipeItem.getItem());
-						});
+						pipeManager.despawnPipeItem(pipeItem);
+
+						if (transportPipesContainer != null) {
+
+							pipeItem.setBlockLoc(getBlockLoc().getNeighbor(pipeItem.getMovingDir()));
+							pipeItem.getRelativeLocation().switchValues();
+							pipeItem.resetOldRelativeLocation();
+
+							transportPipes.runTaskSync(() -> {
+								if (transportPipesContainer.isInLoadedChunk()) {
+
+									ItemStack overflow = transportPipesContainer.insertItem(pipeItem.getMovingDir(), pipeItem.getItem());
+									pipeManager.getReservationLedger().release(pipeItem);
+									if (overflow != null && waitingItems.size() < generalConf.getMaxItemsPerPipe()) {
+										// the container is full, so the rest waits at the border until it has space again
+										pipeItem.getItem().setAmount(overflow.getAmount());
+										pipeItem.setBlockLoc(this.getBlockLoc());
+										pipeItem.getRelativeLocation().switchValues();
+										pipeItem.resetOldRelativeLocation();
+										pipeManager.spawnPipeItem(pipeItem);
+										addWaitingItem(pipeManager, pipeItem);
+									}
+									else if (overflow != null) {
+										// getWorld().dropItem(getBlockLoc().toLocation(getWorld()), overflow);
+										pipeItem.getItem().setAmount(overflow.getAmount());
+										pipeItem.setMovingDir(pipeItem.getMovingDir().getOpposite());
+										pipeItem.setBlockLoc(this.getBlockLoc());
+										pipeItem.getRelativeLocation().switchValues();
+										pipeItem.resetOldRelativeLocation();
+										pipeItem.resetSegment();
+										pipeManager.spawnPipeItem(pipeItem);
+										this.putPipeItem(pipeItem);
+									}
+								}
+								else {
+									pipeManager.getReservationLedger().release(pipeItem);
+									addUnloadedItem(pipeManager, pipeItem);
+								}
+							});
+						}
+						else {
+							// drop item
+							transportPipes.runTaskSync(() -> {
+								pipeItem.getWorld().dropItem(pipeItem.getBlockLoc().getNeighbor(pipeItem.getMovingDir()).toLocation(pipeItem.getWorld()), pipeItem.getItem());
+							});
+						}
 					}
 				}
-			}
 
+			}
+			currentItems = nextItems;
+		} while (eventsLeft);
+		items = nextItems;
+
+		// stay in the ticked pipes if the next arrival is in the next tick, otherwise sleep until it
+		double baseTicksUntilEvent = nextEventTime - time;
+		needsTick = shown || baseTicksUntilEvent <= tickGroup.getTickScale() + EVENT_TIME_EPSILON;
+		if (!needsTick && nextEventTime != Double.POSITIVE_INFINITY) {
+			pipeManager.scheduleTransitTick(this, (long) Math.ceil(baseTicksUntilEvent - EVENT_TIME_EPSILON));
 		}
 
 	}
 
 	@Override
-	public void syncBigTick(DuctManager<? extends Duct> ductManager) {
-		super.syncBigTick(ductManager);
+	public void syncScheduledTick(DuctManager<? extends Duct> ductManager) {
+		super.syncScheduledTick(ductManager);
 
+		// the chunk of some destinations may have been loaded before their items were indexed
 		PipeManager pipeManager = (PipeManager) ductManager;
+		for (PipeItem unloadedItem : unloadedItems) {
+			if (releaseUnloadedItem(pipeManager, unloadedItem)) {
+				unloadedItems.remove(unloadedItem);
+			}
+		}
 
-		// put one of the unloaded items into the container block it belongs to or drop it if there is no longer a
-		// container
-        if (!getUnloadedItems().isEmpty()) {
-            PipeItem unloadedItem = getUnloadedItems().getLast();
-            TransportPipesContainer newContainer = pipeManager.getContainerAtLoc(getWorld(), unloadedItem.getBlockLoc());
-            if (newContainer != null && newContainer.isInLoadedChunk()) {
-                ItemStack overflow = newContainer.insertItem(unloadedItem.getMovingDir(), unloadedItem.getItem());
-                getUnloadedItems().removeLast();
-                if (overflow != null) {
-                    getWorld().dropItem(getBlockLoc().toLocation(getWorld()), overflow);
-                }
-            }
-            else if (newContainer == null && !(globalDuctManager.getDuctAtLoc(getWorld(), unloadedItem.getBlockLoc()) instanceof Pipe)) {
-                // nothing there
-                getWorld().dropItem(getBlockLoc().toLocation(getWorld()), unloadedItem.getItem());
-                getUnloadedItems().removeLast();
-            }
-        }
+	}
 
+	/**
+	 * THREAD-SAFE adds the given item, whose destination is inside an unloaded chunk, to the unloadedItems
+	 */
+	private void addUnloadedItem(PipeManager pipeManager, PipeItem pipeItem) {
+		unloadedItems.add(pipeItem);
+		pipeManager.registerUnloadedItem(this, pipeItem.getBlockLoc());
+		pipeManager.scheduleSyncTick(this, UNLOADED_ITEMS_DELAY);
+	}
+
+	/**
+	 * puts all unloaded items whose destination is inside the given chunk into the container block or pipe they belong
+	 * to. Has to be called by the main thread.
+	 */
+	public void releaseUnloadedItems(PipeManager pipeManager, int chunkX, int chunkZ) {
+		for (PipeItem unloadedItem : unloadedItems) {
+			if (unloadedItem.getBlockLoc().getX() >> 4 == chunkX && unloadedItem.getBlockLoc().getZ() >> 4 == chunkZ) {
+				if (releaseUnloadedItem(pipeManager, unloadedItem)) {
+					unloadedItems.remove(unloadedItem);
+				}
+				else {
+					pipeManager.registerUnloadedItem(this, unloadedItem.getBlockLoc());
+				}
+			}
+		}
+	}
+
+	/**
+	 * puts the given unloaded item into the container block or pipe it belongs to or drops it if there is no longer a
+	 * container or pipe. Has to be called by the main thread.
+	 * @return false if the destination is still unloaded
+	 */
+	private boolean releaseUnloadedItem(PipeManager pipeManager, PipeItem unloadedItem) {
+		TransportPipesContainer newContainer = pipeManager.getContainerAtLoc(getWorld(), unloadedItem.getBlockLoc());
+		Duct newDuct = globalDuctManager.getDuctAtLoc(getWorld(), unloadedItem.getBlockLoc());
+		if (newContainer != null) {
+			if (!newContainer.isInLoadedChunk()) {
+				return false;
+			}
+			ItemStack overflow = newContainer.insertItem(unloadedItem.getMovingDir(), unloadedItem.getItem());
+			if (overflow != null) {
+				getWorld().dropItem(getBlockLoc().toLocation(getWorld()), overflow);
+			}
+		}
+		else if (newDuct instanceof Pipe) {
+			if (!newDuct.isInLoadedChunk()) {
+				return false;
+			}
+			unloadedItem.resetSegment();
+			((Pipe) newDuct).putPipeItem(unloadedItem);
+		}
+		else {
+			// nothing there
+			getWorld().dropItem(getBlockLoc().toLocation(getWorld()), unloadedItem.getItem());
+		}
+		return true;
 	}
 
 	/**
@@ -343,10 +882,11 @@ public class Pipe extends Duct {
 		List<ItemStack> dropItems = super.destroyed(transportPipes, ductManager, destroyer);
 
         items.forEach(pipeItem -> {
+            ((PipeManager) ductManager).getReservationLedger().release(pipeItem);
             ((PipeManager) ductManager).despawnPipeItem(pipeItem);
             dropItems.add(pipeItem.getItem());
         });
-        items.clear();
+        items = new ArrayList<>();
         futureItems.forEach(pipeItem -> {
             ((PipeManager) ductManager).despawnPipeItem(pipeItem);
             dropItems.add(pipeItem.getItem());
@@ -357,6 +897,23 @@ public class Pipe extends Duct {
             dropItems.add(pipeItem.getItem());
         });
         unloadedItems.clear();
+        waitingItems.forEach(pipeItem -> {
+            ((PipeManager) ductManager).despawnPipeItem(pipeItem);
+            dropItems.add(pipeItem.getItem());
+        });
+        waitingItems.clear();
+        // the items skipping the lane towards this pipe are put back into the pipes before
+        double time = getTickGroup().getTime();
+        PipeItem laneItem;
+        while ((laneItem = laneItems.poll()) != null) {
+            if (laneItem.getSegmentStart() <= time) {
+                dropItems.add(laneItem.getItem());
+            }
+            else {
+                expandLaneItem(transportPipes, (PipeManager) ductManager, laneItem, time);
+            }
+        }
+        ((PipeManager) ductManager).unmarkPipeHot(this);
 
 		return dropItems;
 	}
@@ -373,12 +930,16 @@ public class Pipe extends Duct {
 		List<PipeItem> accumulatedItems = new ArrayList<>();
 		accumulatedItems.addAll(getItems());
 		accumulatedItems.addAll(getFutureItems());
+		accumulatedItems.addAll(getWaitingItems());
+		// the items skipping a lane are saved at the border of its exit
+		accumulatedItems.addAll(getLaneItems());
 		List<PipeItem> unloadedItems = new ArrayList<>(getUnloadedItems());
 
 		ListTag<CompoundTag> accumulatedItemsListTag = new ListTag<>(CompoundTag.class);
 		ListTag<CompoundTag> unloadedItemsListTag = new ListTag<>(CompoundTag.class);
 
 		for (PipeItem accumulatedItem : accumulatedItems) {
+			updateItemPosition(accumulatedItem);
 			CompoundTag itemTag = new CompoundTag();
 			accumulatedItem.saveToNBTTag(itemTag, itemService);
 			accumulatedItemsListTag.add(itemTag);
@@ -401,17 +962,25 @@ public class Pipe extends Duct {
 		ListTag<CompoundTag> accumulatedItemsListTag = compoundTag.getListTag("pipeItems").asCompoundTagList();
 		ListTag<CompoundTag> unloadedItemsListTag = compoundTag.getListTag("unloadedPipeItems").asCompoundTagList();
 
+		List<PipeItem> loadedItems = new ArrayList<>(items);
 		for (CompoundTag itemTag : accumulatedItemsListTag) {
 			PipeItem pipeItem = new PipeItem();
 			pipeItem.loadFromNBTTag(itemTag, getWorld(), itemService);
-			getItems().add(pipeItem);
+			loadedItems.add(pipeItem);
 		}
+		items = loadedItems;
 
 		for (CompoundTag itemTag : unloadedItemsListTag) {
 			PipeItem pipeItem = new PipeItem();
 			pipeItem.loadFromNBTTag(itemTag, getWorld(), itemService);
 			getUnloadedItems().add(pipeItem);
+			getPipeManager().registerUnloadedItem(this, pipeItem.getBlockLoc());
+		}
+
+		if (!getItems().isEmpty()) {
+			getPipeManager().markPipeHot(this);
 		}
+		scheduleWakeUps();
 
 	}
 }
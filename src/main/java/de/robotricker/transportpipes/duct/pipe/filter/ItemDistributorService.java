@@ -1,16 +1,15 @@
 package de.robotricker.transportpipes.duct.pipe.filter;
 
-import java.math.BigInteger;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
+import java.util.EnumMap;
 import java.util.Map;
+
 import javax.inject.Inject;
 
 import org.bukkit.inventory.ItemStack;
 
 import de.robotricker.transportpipes.api.TransportPipesContainer;
+import de.robotricker.transportpipes.container.BlockContainer;
 import de.robotricker.transportpipes.duct.Duct;
 import de.robotricker.transportpipes.duct.DuctRegister;
 import de.robotricker.transportpipes.duct.manager.DuctManager;
@@ -20,7 +19,6 @@ import de.robotricker.transportpipes.duct.pipe.CraftingPipe;
 import de.robotricker.transportpipes.duct.pipe.Pipe;
 import de.robotricker.transportpipes.duct.pipe.extractionpipe.ExtractMode;
 import de.robotricker.transportpipes.duct.pipe.items.PipeItem;
-import de.robotricker.transportpipes.location.BlockLocation;
 import de.robotricker.transportpipes.location.TPDirection;
 
 public class ItemDistributorService {
@@ -30,118 +28,140 @@ public class ItemDistributorService {
     @Inject
     private GlobalDuctManager globalDuctManager;
 
-    private Map<Pipe, Integer> pipeItemDistributionCounter;
+    private static final TPDirection[] DIRECTIONS = TPDirection.values();
 
-    public ItemDistributorService() {
-        this.pipeItemDistributionCounter = new HashMap<>();
+    /**
+     * the greatest common divisor of the given non-negative numbers, 0 is ignored
+     */
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
     }
 
     /**
-     * calculates the greatest common dividor of all abs weights and divides every weight by it.
-     **/
-    private void reduceAbsWeights(Map<TPDirection, Integer> absWeights) {
-        BigInteger gcd = null;
-        for (TPDirection dir : absWeights.keySet()) {
-            if (absWeights.get(dir) == 0) {
-                continue;
-            }
-            if (gcd == null) {
-                gcd = BigInteger.valueOf(absWeights.get(dir));
-            } else {
-                gcd = BigInteger.valueOf(absWeights.get(dir)).gcd(gcd);
-            }
-        }
-        for (TPDirection dir : absWeights.keySet()) {
-            if (absWeights.get(dir) == 0) {
-                continue;
-            }
-            absWeights.put(dir, absWeights.get(dir) / gcd.intValue());
-        }
+     * the amount of positions inside [from, to) which belong to the block [blockStart, blockEnd)
+     */
+    private static int overlap(int from, int to, int blockStart, int blockEnd) {
+        return Math.max(0, Math.min(to, blockEnd) - Math.max(from, blockStart));
     }
 
     /**
-     * this method maps the possible directions with their free space
+     * this method gives back the free space for every possible direction, indexed by the ordinal of the direction
      */
-    private Map<TPDirection, Integer> calculateFreeSpaceForAllDirections(ItemStack item, Collection<TPDirection> dirs, Pipe pipe) {
-        Map<TPDirection, Integer> freeSpaceMap = new HashMap<>();
+    private int[] calculateFreeSpaceForAllDirections(PipeItem pipeItem, Collection<TPDirection> dirs, Pipe pipe) {
+        ItemStack item = pipeItem.getItem();
+        int[] freeSpaces = new int[DIRECTIONS.length];
 
-        Map<BlockLocation, TransportPipesContainer> containerMap = ((PipeManager) (DuctManager<? extends Duct>) ductRegister.baseDuctTypeOf("pipe").getDuctManager()).getContainers(pipe.getWorld());
-        Map<BlockLocation, Duct> ductMap = globalDuctManager.getDucts(pipe.getWorld());
+        PipeManager pipeManager = (PipeManager) (DuctManager<? extends Duct>) ductRegister.baseDuctTypeOf("pipe").getDuctManager();
 
         for (TPDirection dir : dirs) {
-            freeSpaceMap.put(dir, Integer.MAX_VALUE);
-            BlockLocation bl = pipe.getBlockLoc().getNeighbor(dir);
-            if (containerMap != null && containerMap.containsKey(bl)) {
-                // container at location
-                TransportPipesContainer container = containerMap.get(bl);
-                int freeSpace = container.spaceForItem(dir, item);
-                freeSpaceMap.put(dir, freeSpace);
-            } else if (ductMap != null && ductMap.containsKey(bl) && ductMap.get(bl) instanceof CraftingPipe) {
-                // crafting pipe at location
-                CraftingPipe cp = (CraftingPipe) ductMap.get(bl);
-                int freeSpace = cp.spaceForItem(new ItemData(item));
-                freeSpaceMap.put(dir, freeSpace);
+            freeSpaces[dir.ordinal()] = Integer.MAX_VALUE;
+            long neighborKey = pipe.getBlockLoc().getNeighborKey(dir);
+            TransportPipesContainer container = pipeManager.getContainerAtLoc(pipe.getWorld(), neighborKey);
+            if (container != null) {
+                // container at location, the items already on their way into it don't fit in anymore
+                int space = container instanceof BlockContainer ? ((BlockContainer) container).spaceForItem(dir, item, pipeItem.getSimilarityKey()) : container.spaceForItem(dir, item);
+                freeSpaces[dir.ordinal()] = Math.max(0, space - pipeManager.getReservationLedger().getReserved(container, pipeItem.getSimilarityKey()));
+            } else {
+                Duct duct = globalDuctManager.getDuctAtLoc(pipe.getWorld(), neighborKey);
+                if (duct instanceof CraftingPipe) {
+                    // crafting pipe at location
+                    freeSpaces[dir.ordinal()] = ((CraftingPipe) duct).spaceForItem(new ItemData(item));
+                }
             }
         }
 
-        return freeSpaceMap;
+        return freeSpaces;
     }
     public Map<TPDirection, Integer> splitPipeItem(PipeItem pipeItem, Map<TPDirection, Integer> absWeights, Pipe pipe) {
         return splitPipeItem(pipeItem, absWeights, pipe, null);
     }
 
+    /**
+     * splits the given item into the directions of the given weights. The item is distributed round robin: the
+     * directions get as many positions in a row as their weight, reduced by the greatest common divisor of all weights
+     * and limited by the free space of a container next to the pipe. The pipe remembers the position the next item
+     * starts at. The amount per direction is calculated for the whole stack at once instead of item by item.
+     */
     public Map<TPDirection, Integer> splitPipeItem(PipeItem pipeItem, Map<TPDirection, Integer> absWeights, Pipe pipe, Map<TPDirection, Integer> origWeights) {
         ItemStack item = pipeItem.getItem();
-        Map<TPDirection, Integer> splitMap = new HashMap<>();
-        Map<TPDirection, Integer> freeSpaceMap = calculateFreeSpaceForAllDirections(item, absWeights.keySet(), pipe);
-        
-        reduceAbsWeights(absWeights);
-
-        List<TPDirection> weightsDirectionList = new ArrayList<>();
-        for (TPDirection dir : absWeights.keySet()) {
-            int absWeight = absWeights.get(dir);
-            for (int i = 1; i <= absWeight; i++) {
-                // make sure the free space of the nearby container block does not get ignored
-                if (freeSpaceMap.get(dir) >= i) {
-                    weightsDirectionList.add(dir);
-                }
+        Map<TPDirection, Integer> splitMap = new EnumMap<>(TPDirection.class);
+        int[] freeSpaces = calculateFreeSpaceForAllDirections(pipeItem, absWeights.keySet(), pipe);
+
+        int gcd = 0;
+        for (int absWeight : absWeights.values()) {
+            gcd = gcd(absWeight, gcd);
+        }
+
+        // the directions in the order of the weights and the amount of positions each of them gets in a row
+        TPDirection[] blockDirs = new TPDirection[DIRECTIONS.length];
+        int[] blockSizes = new int[DIRECTIONS.length];
+        int blockCount = 0;
+        int cycleLength = 0;
+        boolean hasDestinations = false;
+        for (Map.Entry<TPDirection, Integer> absWeight : absWeights.entrySet()) {
+            if (absWeight.getValue() <= 0) {
+                continue;
+            }
+            hasDestinations = true;
+            // make sure the free space of the nearby container block does not get ignored
+            int blockSize = Math.min(absWeight.getValue() / gcd, freeSpaces[absWeight.getKey().ordinal()]);
+            if (blockSize > 0) {
+                blockDirs[blockCount] = absWeight.getKey();
+                blockSizes[blockCount] = blockSize;
+                blockCount++;
+                cycleLength += blockSize;
             }
         }
 
-        if (weightsDirectionList.isEmpty()) {
+        if (blockCount == 0) {
             // return empty map so the item will be dropped
             // if null would be returned, no item will be dropped
             if (origWeights != null) {
                 return splitPipeItem(pipeItem, origWeights, pipe, null);
             }
             else {
+                // only items whose destinations are full wait, the others are sent back
+                pipeItem.setBlockedByFullDestination(hasDestinations);
                 return splitMap;
             }
         }
 
-        int distributionCounter = pipeItemDistributionCounter.getOrDefault(pipe, 0);
+        pipeItem.setBlockedByFullDestination(false);
+        int distributionCounter = pipe.getDistributionCounter();
+        int amount = item.getAmount();
 
         if (pipeItem.getExtractMode() == ExtractMode.DIRECT) {
-            splitMap.put(weightsDirectionList.get(0), item.getAmount());
+            splitMap.put(blockDirs[0], amount);
         }
-        else {
-            for (int i = 0; i < item.getAmount(); i++) {
-                distributionCounter %= weightsDirectionList.size();
-    
-                TPDirection outputDir = weightsDirectionList.get(distributionCounter);
-                if (splitMap.containsKey(outputDir)) {
-                    splitMap.put(outputDir, splitMap.get(outputDir) + 1);
-                } else {
-                    splitMap.put(outputDir, 1);
+        else if (amount > 0) {
+            int start = distributionCounter % cycleLength;
+            int fullCycles = amount / cycleLength;
+            int rest = amount % cycleLength;
+            int blockStart = 0;
+            for (int i = 0; i < blockCount; i++) {
+                int blockEnd = blockStart + blockSizes[i];
+                // the rest starts at the current position and may wrap around to the start of the cycle
+                int dirAmount = fullCycles * blockSizes[i] + overlap(start, Math.min(start + rest, cycleLength), blockStart, blockEnd)
+                        + overlap(0, start + rest - cycleLength, blockStart, blockEnd);
+                if (dirAmount > 0) {
+                    splitMap.put(blockDirs[i], dirAmount);
                 }
-    
-                distributionCounter++;
+                blockStart = blockEnd;
             }
+            // the position after the last item
+            distributionCounter = (start + amount - 1) % cycleLength + 1;
         }
 
-        if (!pipeItem.getVisitedPipes().contains(pipe.getBlockLoc())) {
-            pipeItemDistributionCounter.put(pipe, distributionCounter);
-            pipeItem.addVisitedPipe(pipe.getBlockLoc());
+        if (!pipeItem.hasVisitedPipe(pipe.getBlockLoc())) {
+            pipe.setDistributionCounter(distributionCounter);
+            if (pipe.isJunction()) {
+                pipeItem.addVisitedPipe(pipe.getBlockLoc());
+            }
         }
 
         return splitMap;
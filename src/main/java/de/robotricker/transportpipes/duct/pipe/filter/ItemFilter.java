@@ -3,7 +3,6 @@ package de.robotricker.transportpipes.duct.pipe.filter;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.bukkit.Bukkit;
 import org.bukkit.inventory.ItemStack;
 
 import de.robotricker.transportpipes.items.ItemService;
@@ -18,17 +17,32 @@ public class ItemFilter {
     private ItemData[] filterItems;
     private FilterMode filterMode;
     private FilterStrictness filterStrictness;
+    /**
+     * the compiled filter items, replaced by {@link #updateMatcher()}
+     */
+    private volatile ItemFilterMatcher matcher;
 
     public ItemFilter() {
         filterItems = new ItemData[MAX_ITEMS_PER_ROW];
         filterMode = FilterMode.NORMAL;
         filterStrictness = FilterStrictness.MATERIAL_METADATA;
+        updateMatcher();
     }
 
+    /**
+     * {@link #updateMatcher()} has to be called after changing the returned filter items
+     */
     public ItemData[] getFilterItems() {
         return filterItems;
     }
 
+    /**
+     * compiles the current filter items and strictness, so the next calls of applyFilter use them
+     */
+    public void updateMatcher() {
+        matcher = new ItemFilterMatcher(filterItems, filterStrictness);
+    }
+
     public FilterMode getFilterMode() {
         return filterMode;
     }
@@ -43,49 +57,30 @@ public class ItemFilter {
 
     public void setFilterStrictness(FilterStrictness filterStrictness) {
         this.filterStrictness = filterStrictness;
+        updateMatcher();
     }
 
     public FilterResponse applyFilter(ItemStack item) {
         if (item == null || getFilterMode() == FilterMode.BLOCK_ALL) {
         	return new FilterResponse(0, false);
         }
+        ItemFilterMatcher matcher = this.matcher;
         if (getFilterMode() == FilterMode.NORMAL) {
-            int weight = 0;
-            boolean hasItems = false;
-            for (ItemData id : filterItems) {
-            	if (id != null) {
-            		hasItems = true;
-                    if (matchesItemStrictness(id.toItemStack(), item)) {
-                        weight++;
-                    }
-            	}
+            if (!matcher.hasItems()) {
+                return new FilterResponse(1, true);
             }
-            return hasItems ? new FilterResponse(weight, weight > 0) : new FilterResponse(1, true);
+            int weight = matcher.countMatches(item);
+            return new FilterResponse(weight, weight > 0);
         }
         if (getFilterMode() == FilterMode.INVERTED) {
-            for (ItemData id : filterItems) {
-                if (id != null) {
-                	if (matchesItemStrictness(id.toItemStack(), item)) {
-                		return new FilterResponse(0, false);
-                	}
-                }
+            if (matcher.hasItems() && matcher.countMatches(item) > 0) {
+                return new FilterResponse(0, false);
             }
             return new FilterResponse(1, true);
         }
         return new FilterResponse(0, false);
     }
 
-    private boolean matchesItemStrictness(ItemStack mask, ItemStack itemStack) {
-        switch (getFilterStrictness()) {
-            case MATERIAL:
-                return mask.getType() == itemStack.getType();
-            case MATERIAL_METADATA:
-                return mask.getType() == itemStack.getType() && Bukkit.getItemFactory().equals(mask.getItemMeta(), itemStack.getItemMeta());
-            default:
-                return false;
-        }
-    }
-
     public List<ItemStack> getAsItemStacks() {
         List<ItemStack> itemStacks = new ArrayList<>();
         for (int i = 0; i < MAX_ITEMS_PER_ROW; i++) {
@@ -123,6 +118,7 @@ public class ItemFilter {
             ItemStack deserialized = itemService.deserializeItemStack(itemDataListTag.get(i).getValue());
             filterItems[i] = deserialized != null ? new ItemData(deserialized) : null;
         }
+        updateMatcher();
     }
 
 }
@@ -0,0 +1,114 @@
+package de.robotricker.transportpipes.duct.pipe.filter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemFactory;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+/**
+ * An immutable snapshot of the filter items of an {@link ItemFilter}, built whenever the filter items or the
+ * strictness change. It counts the filter items per material and, with metadata, per distinct item meta of that
+ * material, so matching an item only compares it with the filter items of its own material, once per distinct meta.
+ */
+final class ItemFilterMatcher {
+
+    private final boolean hasItems;
+    /**
+     * the amount of filter items per material ordinal, only used with {@link FilterStrictness#MATERIAL}
+     */
+    private final int[] materialCounts;
+    /**
+     * the distinct item metas of the filter items per material, only used with
+     * {@link FilterStrictness#MATERIAL_METADATA}
+     */
+    private final Map<Material, List<MetaCount>> metaCounts;
+
+    ItemFilterMatcher(ItemData[] filterItems, FilterStrictness filterStrictness) {
+        int[] materialCounts = null;
+        Map<Material, List<MetaCount>> metaCounts = null;
+        boolean hasItems = false;
+        for (ItemData id : filterItems) {
+            if (id == null) {
+                continue;
+            }
+            hasItems = true;
+            ItemStack mask = id.toItemStack();
+            if (filterStrictness == FilterStrictness.MATERIAL) {
+                if (materialCounts == null) {
+                    materialCounts = new int[Material.values().length];
+                }
+                materialCounts[mask.getType().ordinal()]++;
+            } else if (filterStrictness == FilterStrictness.MATERIAL_METADATA) {
+                if (metaCounts == null) {
+                    metaCounts = new EnumMap<>(Material.class);
+                }
+                addMeta(metaCounts.computeIfAbsent(mask.getType(), m -> new ArrayList<>()), mask.getItemMeta());
+            }
+        }
+        this.hasItems = hasItems;
+        this.materialCounts = materialCounts;
+        this.metaCounts = metaCounts;
+    }
+
+    private static void addMeta(List<MetaCount> metas, ItemMeta meta) {
+        ItemFactory itemFactory = Bukkit.getItemFactory();
+        for (MetaCount metaCount : metas) {
+            if (itemFactory.equals(metaCount.meta, meta)) {
+                metaCount.count++;
+                return;
+            }
+        }
+        metas.add(new MetaCount(meta));
+    }
+
+    /**
+     * whether there is at least one filter item
+     */
+    boolean hasItems() {
+        return hasItems;
+    }
+
+    /**
+     * the amount of filter items the given item matches. With metadata, an item matches a filter item of the same
+     * material if {@link ItemFactory#equals(ItemMeta, ItemMeta)} holds for their metas.
+     */
+    int countMatches(ItemStack item) {
+        if (materialCounts != null) {
+            return materialCounts[item.getType().ordinal()];
+        }
+        if (metaCounts != null) {
+            List<MetaCount> metas = metaCounts.get(item.getType());
+            if (metas == null) {
+                return 0;
+            }
+            ItemFactory itemFactory = Bukkit.getItemFactory();
+            ItemMeta meta = item.getItemMeta();
+            for (MetaCount metaCount : metas) {
+                // the distinct metas of one material never equal each other, so at most one of them matches
+                if (itemFactory.equals(metaCount.meta, meta)) {
+                    return metaCount.count;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static class MetaCount {
+
+        private final ItemMeta meta;
+        private int count;
+
+        private MetaCount(ItemMeta meta) {
+            this.meta = meta;
+            this.count = 1;
+        }
+
+    }
+
+}
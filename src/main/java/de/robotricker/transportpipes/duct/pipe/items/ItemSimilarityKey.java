@@ -0,0 +1,46 @@
+package de.robotricker.transportpipes.duct.pipe.items;
+
+import org.bukkit.inventory.ItemStack;
+
+/**
+ * A hash key for item stacks which ignores their amount. Two keys are equal if their item stacks are similar, see
+ * {@link ItemStack#isSimilar(ItemStack)}. The item meta is only read once, when the key is created. A key keeps the
+ * given item stack, so keys which are stored for longer have to be created by {@link #copyOf(ItemStack)}.
+ */
+public final class ItemSimilarityKey {
+
+    private final ItemStack item;
+    private final int hash;
+
+    public ItemSimilarityKey(ItemStack item) {
+        this.item = item;
+        this.hash = 31 * item.getType().hashCode() + (item.hasItemMeta() ? item.getItemMeta().hashCode() : 0);
+    }
+
+    /**
+     * creates a key of a copy of the given item, so it stays valid if the item changes afterwards
+     */
+    public static ItemSimilarityKey copyOf(ItemStack item) {
+        ItemStack copy = item.clone();
+        copy.setAmount(1);
+        return new ItemSimilarityKey(copy);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ItemSimilarityKey)) {
+            return false;
+        }
+        ItemSimilarityKey that = (ItemSimilarityKey) o;
+        return hash == that.hash && item.isSimilar(that.item);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+}
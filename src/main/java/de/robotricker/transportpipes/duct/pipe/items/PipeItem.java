@@ -1,11 +1,10 @@
 package de.robotricker.transportpipes.duct.pipe.items;
 
-import java.util.HashMap;
-import java.util.LinkedHashSet;
 import org.bukkit.World;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.util.Vector;
 
+import de.robotricker.transportpipes.api.TransportPipesContainer;
 import de.robotricker.transportpipes.duct.pipe.extractionpipe.ExtractMode;
 import de.robotricker.transportpipes.items.ItemService;
 import de.robotricker.transportpipes.location.BlockLocation;
@@ -16,18 +15,43 @@ import net.querz.nbt.tag.CompoundTag;
 
 public class PipeItem {
 
-	private ArmorStandData asd;
+	// the armor stand values are the same for every item and never modified, so they are shared
+	private static final RelativeLocation ASD_REL_LOC = new RelativeLocation(0.25f, 0f, 0.33f);
+	private static final Vector ASD_DIRECTION = new Vector(1, 0, 0);
+	private static final Vector ASD_HEAD_ROTATION = new Vector(0f, 0f, 0f);
+	private static final Vector ASD_ARM_ROTATION = new Vector(-30f, 0f, 0f);
+
+	/**
+	 * created as soon as the item is shown to a player for the first time
+	 */
+	private volatile ArmorStandData asd;
 	private ItemStack item;
+	private ItemSimilarityKey similarityKey;
 	private World world;
 	private BlockLocation blockLoc;
 	private BlockLocation sourceLoc = null;
-	private RelativeLocation oldRelativeLocation;
 	private RelativeLocation relativeLocation;
+	// the relative location at the last position update, kept as primitives so resetting it doesn't allocate
+	private long oldRelX;
+	private long oldRelY;
+	private long oldRelZ;
 	private TPDirection movingDir;
+	// the transit segment the item moves along: it started at segmentStart (simulated base ticks) at the value
+	// segmentAnchor on the axis of the moving direction and ends at the middle or at the border of the pipe
+	private double segmentStart = Double.NaN;
+	private long segmentAnchor;
 	private ExtractMode extractMode = ExtractMode.ROUND;
-	private LinkedHashSet<BlockLocation> visitedPipes = new LinkedHashSet<BlockLocation>(); 
-	private HashMap<BlockLocation, LinkedHashSet<TPDirection>> movedDirs = new HashMap<BlockLocation, LinkedHashSet<TPDirection>>();
-	private HashMap<BlockLocation, TPDirection> sourceDirs = new HashMap<BlockLocation, TPDirection>();
+	// the routing memory is only allocated at the first junction
+	private RoutingMemory routingMemory;
+	// the container this item is on its way into and the item type and amount reserved against it, see
+	// ContainerReservationLedger
+	private TransportPipesContainer reservedContainer;
+	private ItemSimilarityKey reservedKey;
+	private int reservedAmount;
+	// whether the last distribution of this item was empty only because its destinations had no space left
+	private boolean blockedByFullDestination;
+	// how often this item waited in a row at the border of a pipe because the next pipe was full
+	private int borderWaits;
 
 	public PipeItem() {}
 
@@ -57,13 +81,30 @@ public class PipeItem {
 
 	public void init(World world, boolean initRelLoc) {
 		this.world = world;
-		this.asd = new ArmorStandData(new RelativeLocation(0.25f, 0f, 0.33f), true, new Vector(1, 0, 0), new Vector(0f, 0f, 0f), new Vector(-30f, 0f, 0f), null, item);
-		if (initRelLoc) this.relativeLocation = new RelativeLocation(movingDir.getX() > 0 ? 0 : (movingDir.getX() < 0 ? 1 : 0.5f), movingDir.getY() > 0 ? 0 : (movingDir.getY() < 0 ? 1 : 0.5f),
-				movingDir.getZ() > 0 ? 0 : (movingDir.getZ() < 0 ? 1 : 0.5f));
+		this.asd = null;
+		this.similarityKey = new ItemSimilarityKey(item);
+		if (initRelLoc) this.relativeLocation = new RelativeLocation(entryValue(movingDir.getX()), entryValue(movingDir.getY()), entryValue(movingDir.getZ()));
 		resetOldRelativeLocation();
 	}
 
+	/**
+	 * the fixed point value an item entering a pipe starts at on one axis
+	 */
+	private static long entryValue(int dirValue) {
+		return dirValue > 0 ? 0 : (dirValue < 0 ? RelativeLocation.PRECISION : RelativeLocation.HALF);
+	}
+
 	public ArmorStandData getAsd() {
+		ArmorStandData asd = this.asd;
+		if (asd == null) {
+			synchronized (this) {
+				asd = this.asd;
+				if (asd == null) {
+					asd = new ArmorStandData(ASD_REL_LOC, true, ASD_DIRECTION, ASD_HEAD_ROTATION, ASD_ARM_ROTATION, null, item);
+					this.asd = asd;
+				}
+			}
+		}
 		return asd;
 	}
 
@@ -71,6 +112,13 @@ public class PipeItem {
 		return item;
 	}
 
+	/**
+	 * the key of the item stack which is equal for all similar item stacks, see {@link ItemStack#isSimilar(ItemStack)}
+	 */
+	public ItemSimilarityKey getSimilarityKey() {
+		return similarityKey;
+	}
+
 	public World getWorld() {
 		return world;
 	}
@@ -92,7 +140,7 @@ public class PipeItem {
     }
 
 	public RelativeLocation getOldRelativeLocation() {
-		return oldRelativeLocation;
+		return new RelativeLocation(oldRelX, oldRelY, oldRelZ);
 	}
 
 	public RelativeLocation getRelativeLocation() {
@@ -100,11 +148,80 @@ public class PipeItem {
 	}
 
 	public RelativeLocation getRelativeLocationDifference() {
-		return relativeLocation.clone().add(-oldRelativeLocation.getLongX(), -oldRelativeLocation.getLongY(), -oldRelativeLocation.getLongZ());
+		return new RelativeLocation(relativeLocation.getLongX() - oldRelX, relativeLocation.getLongY() - oldRelY, relativeLocation.getLongZ() - oldRelZ);
+	}
+
+	public double getRelativeLocationDifferenceX() {
+		return (relativeLocation.getLongX() - oldRelX) / 1d / RelativeLocation.PRECISION;
+	}
+
+	public double getRelativeLocationDifferenceY() {
+		return (relativeLocation.getLongY() - oldRelY) / 1d / RelativeLocation.PRECISION;
+	}
+
+	public double getRelativeLocationDifferenceZ() {
+		return (relativeLocation.getLongZ() - oldRelZ) / 1d / RelativeLocation.PRECISION;
 	}
 
 	public void resetOldRelativeLocation() {
-		oldRelativeLocation = relativeLocation.clone();
+		oldRelX = relativeLocation.getLongX();
+		oldRelY = relativeLocation.getLongY();
+		oldRelZ = relativeLocation.getLongZ();
+	}
+
+	/**
+	 * starts a new transit segment at the current relative location at the given simulated time
+	 */
+	public void startSegment(double time) {
+		segmentStart = time;
+		segmentAnchor = relativeLocation.getLong(movingDir);
+	}
+
+	/**
+	 * forgets the current transit segment, so the next pipe starts a new one at its current time
+	 */
+	public void resetSegment() {
+		segmentStart = Double.NaN;
+	}
+
+	/**
+	 * the simulated time the current segment starts at
+	 */
+	public double getSegmentStart() {
+		return segmentStart;
+	}
+
+	public boolean hasSegment() {
+		return !Double.isNaN(segmentStart);
+	}
+
+	/**
+	 * the value on the moving axis the current segment ends at: the middle or the border of the pipe
+	 */
+	public long getSegmentStop() {
+		if (movingDir.getX() + movingDir.getY() + movingDir.getZ() > 0) {
+			return segmentAnchor < RelativeLocation.HALF ? RelativeLocation.HALF : RelativeLocation.PRECISION;
+		}
+		return segmentAnchor > RelativeLocation.HALF ? RelativeLocation.HALF : 0;
+	}
+
+	/**
+	 * the simulated time the item reaches the end of its current segment at
+	 * @param speed the distance the item moves per base tick
+	 */
+	public double getSegmentEndTime(double speed) {
+		return segmentStart + Math.abs(getSegmentStop() - segmentAnchor) / (speed * RelativeLocation.PRECISION);
+	}
+
+	/**
+	 * sets the relative location to the position on the current segment at the given simulated time
+	 * @param speed the distance the item moves per base tick
+	 */
+	public void advanceTo(double time, double speed) {
+		long stop = getSegmentStop();
+		long moved = Math.round((time - segmentStart) * speed * RelativeLocation.PRECISION);
+		moved = Math.max(0, Math.min(Math.abs(stop - segmentAnchor), moved));
+		relativeLocation.setLong(movingDir, stop >= segmentAnchor ? segmentAnchor + moved : segmentAnchor - moved);
 	}
 
 	public TPDirection getMovingDir() {
@@ -115,36 +232,71 @@ public class PipeItem {
 		this.movingDir = movingDir;
 	}
 	
-	public LinkedHashSet<TPDirection> getMovedDirs(BlockLocation location) {
-		return movedDirs.get(location);
+	private RoutingMemory getOrCreateRoutingMemory() {
+		if (routingMemory == null) {
+			routingMemory = new RoutingMemory();
+		}
+		return routingMemory;
 	}
-	
+
+	public boolean hasMovedDir(BlockLocation location, TPDirection movedDir) {
+		return routingMemory != null && routingMemory.hasMovedDir(location.toLong(), movedDir);
+	}
+
+	/**
+	 * should only be called for junctions, see {@link RoutingMemory}
+	 */
 	public void addMovedDir(BlockLocation location, TPDirection movedDir) {
-	    LinkedHashSet<TPDirection> dirs = movedDirs.containsKey(location) ? movedDirs.get(location) : new LinkedHashSet<TPDirection>();
-		dirs.add(movedDir);
-		movedDirs.put(location, dirs);
+		getOrCreateRoutingMemory().addMovedDir(location.toLong(), movedDir);
 	}
 	
 	public boolean hasMovedDirs(BlockLocation location) {
-		return movedDirs.containsKey(location);
+		return routingMemory != null && routingMemory.hasMovedDirs(location.toLong());
 	}
 	
 	public void removeMovedDir(BlockLocation location) {
-	    movedDirs.remove(location);
+		if (routingMemory != null) {
+			routingMemory.removeMovedDirs(location.toLong());
+		}
 	}
 	
-	public TPDirection getSourceDir(BlockLocation location) {
-		return sourceDirs.get(location);
+	public TransportPipesContainer getReservedContainer() {
+		return reservedContainer;
 	}
-	
-	public void addSourceDir(BlockLocation location, TPDirection sourceDir) {
-		sourceDirs.put(location, sourceDir);
+
+	public ItemSimilarityKey getReservedKey() {
+		return reservedKey;
 	}
-	
-	public boolean hasSourceDir(BlockLocation location) {
-		return sourceDirs.containsKey(location);
+
+	public int getReservedAmount() {
+		return reservedAmount;
 	}
-	
+
+	/**
+	 * only called by the {@link de.robotricker.transportpipes.container.ContainerReservationLedger}
+	 */
+	public void setReservation(TransportPipesContainer reservedContainer, ItemSimilarityKey reservedKey, int reservedAmount) {
+		this.reservedContainer = reservedContainer;
+		this.reservedKey = reservedKey;
+		this.reservedAmount = reservedAmount;
+	}
+
+	public boolean isBlockedByFullDestination() {
+		return blockedByFullDestination;
+	}
+
+	public void setBlockedByFullDestination(boolean blockedByFullDestination) {
+		this.blockedByFullDestination = blockedByFullDestination;
+	}
+
+	public int getBorderWaits() {
+		return borderWaits;
+	}
+
+	public void setBorderWaits(int borderWaits) {
+		this.borderWaits = borderWaits;
+	}
+
 	public ExtractMode getExtractMode() {
 	    return extractMode;
 	}
@@ -153,16 +305,15 @@ public class PipeItem {
 	    this.extractMode = extractMode;
 	}
 	
-	public LinkedHashSet<BlockLocation> getVisitedPipes() {
-	    return visitedPipes;
+	public boolean hasVisitedPipe(BlockLocation blockLocation) {
+	    return routingMemory != null && routingMemory.isVisited(blockLocation.toLong());
 	}
 	
+	/**
+	 * should only be called for junctions, see {@link RoutingMemory}
+	 */
 	public void addVisitedPipe(BlockLocation blockLocation) {
-	    visitedPipes.add(blockLocation);
-	}
-	
-	public void removeVisitedPipe(BlockLocation blockLocation) {
-	    visitedPipes.remove(blockLocation);
+	    getOrCreateRoutingMemory().setVisited(blockLocation.toLong());
 	}
 
 	public void saveToNBTTag(CompoundTag compoundTag, ItemService itemService) {
@@ -0,0 +1,90 @@
+package de.robotricker.transportpipes.duct.pipe.items;
+
+import de.robotricker.transportpipes.location.TPDirection;
+
+/**
+ * Remembers the directions a pipe item moved to at the last {@link #CAPACITY} junctions it passed and whether it
+ * already took part in their round robin distribution. When a new junction is recorded while the memory is full, the
+ * junction recorded first is forgotten, so the size of the memory doesn't depend on the length of the path.
+ * <p>
+ * Pipes with at most two connections don't have to be recorded: inside them, the remembered directions never change
+ * the direction an item takes.
+ */
+public class RoutingMemory {
+
+    public static final int CAPACITY = 16;
+
+    private static final int VISITED = 1 << 6;
+    private static final int MOVED_DIRS = VISITED - 1;
+
+    /**
+     * the packed block locations of the junctions
+     */
+    private final long[] junctions = new long[CAPACITY];
+    /**
+     * one bit per {@link TPDirection} ordinal for the moved directions and the {@link #VISITED} bit
+     */
+    private final byte[] states = new byte[CAPACITY];
+    private int size;
+    private int next;
+
+    public boolean hasMovedDirs(long junction) {
+        int index = indexOf(junction);
+        return index >= 0 && (states[index] & MOVED_DIRS) != 0;
+    }
+
+    public boolean hasMovedDir(long junction, TPDirection dir) {
+        int index = indexOf(junction);
+        return index >= 0 && (states[index] & bit(dir)) != 0;
+    }
+
+    public void addMovedDir(long junction, TPDirection dir) {
+        int index = getOrAdd(junction);
+        states[index] |= bit(dir);
+    }
+
+    public void removeMovedDirs(long junction) {
+        int index = indexOf(junction);
+        if (index >= 0) {
+            states[index] &= ~MOVED_DIRS;
+        }
+    }
+
+    public boolean isVisited(long junction) {
+        int index = indexOf(junction);
+        return index >= 0 && (states[index] & VISITED) != 0;
+    }
+
+    public void setVisited(long junction) {
+        int index = getOrAdd(junction);
+        states[index] |= VISITED;
+    }
+
+    private int indexOf(long junction) {
+        for (int i = 0; i < size; i++) {
+            if (junctions[i] == junction) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int getOrAdd(long junction) {
+        int index = indexOf(junction);
+        if (index >= 0) {
+            return index;
+        }
+        // overwrites the oldest junction once the memory is full
+        index = next;
+        next = (next + 1) % CAPACITY;
+        size = Math.max(size, index + 1);
+        junctions[index] = junction;
+        states[index] = 0;
+        return index;
+    }
+
+    private static int bit(TPDirection dir) {
+        return 1 << dir.ordinal();
+    }
+
+}
@@ -168,6 +168,9 @@ public class GoldenPipeSettingsInventory extends DuctSettingsInventory {
                 }
             }
         }
+        for (GoldenPipe.Color gpc : GoldenPipe.Color.values()) {
+            pipe.getItemFilter(gpc).updateMatcher();
+        }
 
     }
 }
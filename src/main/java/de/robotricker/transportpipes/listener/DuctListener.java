@@ -30,6 +30,7 @@ import org.bukkit.event.Listener;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockRedstoneEvent;
 import org.bukkit.event.player.PlayerDropItemEvent;
 import org.bukkit.event.player.PlayerInteractEntityEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
@@ -51,6 +52,8 @@ import de.robotricker.transportpipes.config.LangConf;
 import de.robotricker.transportpipes.duct.Duct;
 import de.robotricker.transportpipes.duct.DuctRegister;
 import de.robotricker.transportpipes.duct.manager.GlobalDuctManager;
+import de.robotricker.transportpipes.duct.pipe.ExtractionPipe;
+import de.robotricker.transportpipes.duct.pipe.extractionpipe.ExtractCondition;
 import de.robotricker.transportpipes.duct.types.DuctType;
 import de.robotricker.transportpipes.items.ItemService;
 import de.robotricker.transportpipes.location.BlockLocation;
@@ -61,6 +64,11 @@ import de.robotricker.transportpipes.utils.WorldUtils;
 
 public class DuctListener implements Listener {
 
+    /**
+     * a redstone change can power a pipe indirectly through one block in between
+     */
+    private static final int REDSTONE_WAKEUP_RADIUS = 2;
+
     private final List<Material> interactables = new ArrayList<>();
 
     //makes sure that "callInteraction" is called with the mainHand and with the offHand every single time
@@ -117,6 +125,27 @@ public class DuctListener implements Listener {
             }
         }.runTaskLater(transportPipes, 2L);
     }
+
+    /**
+     * wakes up the extraction pipes which wait for redstone power near the powered block
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onRedstone(BlockRedstoneEvent event) {
+        if (event.getOldCurrent() > 0 || event.getNewCurrent() == 0) {
+            return;
+        }
+        Block block = event.getBlock();
+        for (int x = -REDSTONE_WAKEUP_RADIUS; x <= REDSTONE_WAKEUP_RADIUS; x++) {
+            for (int y = -REDSTONE_WAKEUP_RADIUS; y <= REDSTONE_WAKEUP_RADIUS; y++) {
+                for (int z = -REDSTONE_WAKEUP_RADIUS; z <= REDSTONE_WAKEUP_RADIUS; z++) {
+                    Duct duct = globalDuctManager.getDuctAtLoc(block.getWorld(), block.getX() + x, block.getY() + y, block.getZ() + z);
+                    if (duct instanceof ExtractionPipe && ((ExtractionPipe) duct).getExtractCondition() == ExtractCondition.NEEDS_REDSTONE) {
+                        duct.scheduleWakeUps();
+                    }
+                }
+            }
+        }
+    }
     
     @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
     public void onEntityClick(PlayerInteractEntityEvent event) {
@@ -3,6 +3,7 @@ package de.robotricker.transportpipes.listener;
 import javax.inject.Inject;
 
 import org.bukkit.Chunk;
+import org.bukkit.Location;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
 import org.bukkit.block.BrewingStand;
@@ -17,7 +18,13 @@ import org.bukkit.event.block.BlockBreakEvent;
 import org.bukkit.event.block.BlockExplodeEvent;
 import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.inventory.InventoryMoveItemEvent;
+import org.bukkit.event.inventory.InventoryPickupItemEvent;
 import org.bukkit.event.world.ChunkLoadEvent;
+import org.bukkit.inventory.DoubleChestInventory;
+import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.InventoryHolder;
 
 import de.robotricker.transportpipes.TransportPipes;
@@ -84,6 +91,54 @@ public class TPContainerListener implements Listener {
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent e) {
+        invalidateSpaceCache(e.getInventory());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent e) {
+        invalidateSpaceCache(e.getInventory());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryMoveItem(InventoryMoveItemEvent e) {
+        invalidateSpaceCache(e.getSource());
+        invalidateSpaceCache(e.getDestination());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryPickupItem(InventoryPickupItemEvent e) {
+        invalidateSpaceCache(e.getInventory());
+    }
+
+    /**
+     * invalidates the cached space of the container blocks of the given inventory. The inventory events are called
+     * before the inventory changes, so the cache is invalidated in the next tick.
+     */
+    private void invalidateSpaceCache(Inventory inventory) {
+        if (inventory.getLocation() == null) {
+            // no block inventory
+            return;
+        }
+        Location[] locations;
+        if (inventory instanceof DoubleChestInventory) {
+            locations = new Location[]{((DoubleChestInventory) inventory).getLeftSide().getLocation(), ((DoubleChestInventory) inventory).getRightSide().getLocation()};
+        } else {
+            locations = new Location[]{inventory.getLocation()};
+        }
+        PipeManager pipeManager = (PipeManager) (DuctManager<? extends Duct>) ductRegister.baseDuctTypeOf("pipe").getDuctManager();
+        Runnable invalidation = () -> {
+            for (Location location : locations) {
+                TransportPipesContainer container = pipeManager.getContainerAtLoc(location);
+                if (container instanceof SimpleInventoryContainer) {
+                    ((SimpleInventoryContainer) container).invalidateSpaceCache();
+                }
+            }
+        };
+        transportPipes.runTaskSync(invalidation);
+    }
+
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onChunkLoad(ChunkLoadEvent e) {
         handleChunkLoadSync(e.getChunk(), false);
@@ -198,6 +253,14 @@ public class TPContainerListener implements Listener {
                 }
             }
         }
+
+        // ducts inside unloaded chunks are not woken up, so their wakeups have to be scheduled again
+        for (Duct duct : globalDuctManager.getDuctsInChunk(loadedChunk.getWorld(), loadedChunk.getX(), loadedChunk.getZ())) {
+            duct.scheduleWakeUps();
+        }
+
+        // items which wait for this chunk are released at once
+        pipeManager.releaseUnloadedItems(loadedChunk);
     }
 
 
@@ -1,7 +1,5 @@
 package de.robotricker.transportpipes.location;
 
-import java.util.Objects;
-
 import org.bukkit.Location;
 import org.bukkit.World;
 import org.bukkit.block.Block;
@@ -9,6 +7,14 @@ import org.jetbrains.annotations.NotNull;
 
 public class BlockLocation implements Comparable<BlockLocation> {
 
+    /**
+     * packed locations use 26 bits for x and z and 12 bits for y
+     */
+    private static final int PACKED_XZ_BITS = 26;
+    private static final int PACKED_Y_BITS = 12;
+    private static final long PACKED_XZ_MASK = (1L << PACKED_XZ_BITS) - 1;
+    private static final long PACKED_Y_MASK = (1L << PACKED_Y_BITS) - 1;
+
     private int x;
     private int y;
     private int z;
@@ -48,7 +54,41 @@ public class BlockLocation implements Comparable<BlockLocation> {
     }
 
     public BlockLocation getNeighbor(TPDirection direction) {
-        return new BlockLocation(x + direction.getVector().getBlockX(), y + direction.getVector().getBlockY(), z + direction.getVector().getBlockZ());
+        return new BlockLocation(x + direction.getX(), y + direction.getY(), z + direction.getZ());
+    }
+
+    /**
+     * packs this location into a single long, which can be used as key inside primitive maps
+     */
+    public long toLong() {
+        return pack(x, y, z);
+    }
+
+    /**
+     * the packed location of the neighbor block in the given direction
+     */
+    public long getNeighborKey(TPDirection direction) {
+        return pack(x + direction.getX(), y + direction.getY(), z + direction.getZ());
+    }
+
+    public static long pack(int x, int y, int z) {
+        return (x & PACKED_XZ_MASK) << (PACKED_XZ_BITS + PACKED_Y_BITS) | (z & PACKED_XZ_MASK) << PACKED_Y_BITS | (y & PACKED_Y_MASK);
+    }
+
+    public static int unpackX(long packed) {
+        return (int) (packed >> (PACKED_XZ_BITS + PACKED_Y_BITS));
+    }
+
+    public static int unpackY(long packed) {
+        return (int) (packed << (64 - PACKED_Y_BITS) >> (64 - PACKED_Y_BITS));
+    }
+
+    public static int unpackZ(long packed) {
+        return (int) (packed << PACKED_XZ_BITS >> (PACKED_XZ_BITS + PACKED_Y_BITS));
+    }
+
+    public static BlockLocation fromLong(long packed) {
+        return new BlockLocation(unpackX(packed), unpackY(packed), unpackZ(packed));
     }
 
     public Location toLocation(World world){
@@ -94,7 +134,7 @@ public class BlockLocation implements Comparable<BlockLocation> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z);
+        return Long.hashCode(toLong() * 0x9E3779B97F4A7C15L);
     }
 
     @Override
@@ -1,10 +1,12 @@
 package de.robotricker.transportpipes.location;
 
-import java.util.Objects;
-
 public class RelativeLocation implements Cloneable {
 
     public static final long PRECISION = 100000;
+    /**
+     * the fixed point value of 0.5, the middle of a block
+     */
+    public static final long HALF = PRECISION / 2;
 
     private long x;
     private long y;
@@ -62,10 +64,70 @@ public class RelativeLocation implements Cloneable {
     }
 
     public RelativeLocation add(long x, long y, long z) {
-        set(getLongX() + x, getLongY() + y, getLongZ() + z);
+        this.x += x;
+        this.y += y;
+        this.z += z;
         return this;
     }
 
+    /**
+     * moves this location by the given fixed point distance into the given direction
+     */
+    public RelativeLocation move(TPDirection dir, long distance) {
+        this.x += dir.getX() * distance;
+        this.y += dir.getY() * distance;
+        this.z += dir.getZ() * distance;
+        return this;
+    }
+
+    /**
+     * the fixed point value along the axis of the given direction
+     */
+    public long getLong(TPDirection dir) {
+        if (dir.getX() != 0) {
+            return x;
+        }
+        if (dir.getY() != 0) {
+            return y;
+        }
+        return z;
+    }
+
+    /**
+     * sets the fixed point value along the axis of the given direction
+     */
+    public RelativeLocation setLong(TPDirection dir, long value) {
+        if (dir.getX() != 0) {
+            x = value;
+        } else if (dir.getY() != 0) {
+            y = value;
+        } else {
+            z = value;
+        }
+        return this;
+    }
+
+    /**
+     * sets this location to the middle of the block
+     */
+    public RelativeLocation setMiddle() {
+        return set(HALF, HALF, HALF);
+    }
+
+    /**
+     * whether this location is in the middle of the block
+     */
+    public boolean isMiddle() {
+        return x == HALF && y == HALF && z == HALF;
+    }
+
+    /**
+     * whether this location lies on one of the faces of the block
+     */
+    public boolean isOnBorder() {
+        return x == 0 || y == 0 || z == 0 || x == PRECISION || y == PRECISION || z == PRECISION;
+    }
+
     public boolean isXEquals(double x) {
         return this.x == x * PRECISION;
     }
@@ -89,7 +151,9 @@ public class RelativeLocation implements Cloneable {
      * 0.5: 0.5
      */
     public void switchValues() {
-        set(1d - getDoubleX(), 1d - getDoubleY(), 1d - getDoubleZ());
+        x = PRECISION - x;
+        y = PRECISION - y;
+        z = PRECISION - z;
     }
 
     @Override
@@ -104,12 +168,12 @@ public class RelativeLocation implements Cloneable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z);
+        return 31 * (31 * Long.hashCode(x) + Long.hashCode(y)) + Long.hashCode(z);
     }
 
     @Override
     public RelativeLocation clone() {
-        return new RelativeLocation(getDoubleX(), getDoubleY(), getDoubleZ());
+        return new RelativeLocation(x, y, z);
     }
 
     @Override
@@ -15,11 +15,17 @@ public enum TPDirection {
     DOWN(0, -1, 0, BlockFace.DOWN, LangConf.Key.DIRECTIONS_DOWN.get());
 
     private Vector vec;
+    private int x;
+    private int y;
+    private int z;
     private BlockFace blockFace;
     private String displayName;
 
     TPDirection(int x, int y, int z, BlockFace blockFace, String displayName) {
         this.vec = new Vector(x, y, z);
+        this.x = x;
+        this.y = y;
+        this.z = z;
         this.blockFace = blockFace;
         this.displayName = displayName;
     }
@@ -29,15 +35,15 @@ public enum TPDirection {
     }
 
     public int getX() {
-        return vec.getBlockX();
+        return x;
     }
 
     public int getY() {
-        return vec.getBlockY();
+        return y;
     }
 
     public int getZ() {
-        return vec.getBlockZ();
+        return z;
     }
 
     public BlockFace getBlockFace() {
@@ -49,7 +55,7 @@ public enum TPDirection {
     }
 
     public boolean isSide() {
-        return vec.getBlockY() == 0;
+        return y == 0;
     }
 
     public String getDisplayName() {
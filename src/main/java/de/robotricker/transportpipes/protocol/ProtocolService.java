@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.inject.Inject;
 
 import org.bukkit.entity.EntityType;
@@ -43,7 +44,7 @@ public class ProtocolService {
         protocolManager = ProtocolLibrary.getProtocolManager();
     }
 
-    private int nextEntityID = 99999;
+    private AtomicInteger nextEntityID = new AtomicInteger(99999);
     private UUID uuid = UUID.randomUUID();
 
     public void sendPipeItem(Player p, PipeItem item) {
@@ -54,9 +55,9 @@ public class ProtocolService {
         try {
         	PacketContainer relEntityMoveContainer = protocolManager.createPacket(PacketType.Play.Server.REL_ENTITY_MOVE);
         	relEntityMoveContainer.getIntegers().write(0, item.getAsd().getEntityID());
-        	relEntityMoveContainer.getShorts().write(0, (short) ((item.getRelativeLocationDifference().getDoubleX() * 32d) * 128));
-        	relEntityMoveContainer.getShorts().write(1, (short) ((item.getRelativeLocationDifference().getDoubleY() * 32d) * 128));
-        	relEntityMoveContainer.getShorts().write(2, (short) ((item.getRelativeLocationDifference().getDoubleZ() * 32d) * 128));
+        	relEntityMoveContainer.getShorts().write(0, (short) ((item.getRelativeLocationDifferenceX() * 32d) * 128));
+        	relEntityMoveContainer.getShorts().write(1, (short) ((item.getRelativeLocationDifferenceY() * 32d) * 128));
+        	relEntityMoveContainer.getShorts().write(2, (short) ((item.getRelativeLocationDifferenceZ() * 32d) * 128));
         	relEntityMoveContainer.getBooleans().write(0, true);
         	protocolManager.sendServerPacket(p, relEntityMoveContainer);
         } catch (Exception e) {
@@ -73,7 +74,7 @@ public class ProtocolService {
 
         try {
             if (asd.getEntityID() == -1) {
-                asd.setEntityID(++nextEntityID);
+                asd.setEntityID(nextEntityID.incrementAndGet());
             }
             
             // SPAWN ENTITY
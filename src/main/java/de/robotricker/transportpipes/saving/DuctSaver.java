@@ -2,7 +2,6 @@ package de.robotricker.transportpipes.saving;
 
 import java.io.IOException;
 import java.nio.file.Paths;
-import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.inject.Inject;
 
@@ -13,7 +12,6 @@ import de.robotricker.transportpipes.duct.Duct;
 import de.robotricker.transportpipes.duct.DuctRegister;
 import de.robotricker.transportpipes.duct.manager.GlobalDuctManager;
 import de.robotricker.transportpipes.items.ItemService;
-import de.robotricker.transportpipes.location.BlockLocation;
 import net.querz.nbt.io.NBTUtil;
 import net.querz.nbt.tag.CompoundTag;
 import net.querz.nbt.tag.ListTag;
@@ -31,9 +29,7 @@ public class DuctSaver {
 
     public void saveDuctsSync(World world) {
         ListTag<CompoundTag> listTag = new ListTag<>(CompoundTag.class);
-        ConcurrentSkipListMap<BlockLocation, Duct> ducts = globalDuctManager.getDucts(world);
-        for (BlockLocation bl : ducts.keySet()) {
-            Duct duct = ducts.get(bl);
+        for (Duct duct : globalDuctManager.getDucts(world).values()) {
             CompoundTag ductTag = new CompoundTag();
 
             ductRegister.saveDuctTypeToNBTTag(duct.getDuctType(), ductTag);
@@ -91,7 +91,7 @@ public class LegacyDuctLoader_v4_3_1 extends DuctLoader {
                     ItemStack item = deserializeLegacyItemString(itemString);
 
                     PipeItem pipeItem = new PipeItem(item, world, duct.getBlockLoc(), relLoc, dir);
-                    ((Pipe) duct).getItems().add(pipeItem);
+                    ((Pipe) duct).putPipeItem(pipeItem);
                 }
                 // load specific pipe stuff
                 if (duct.getDuctType().is("golden")) {
@@ -112,6 +112,7 @@ public class LegacyDuctLoader_v4_3_1 extends DuctLoader {
                             i++;
                         }
 
+                        itemFilter.updateMatcher();
                         ((GoldenPipe) duct).setItemFilter(GoldenPipe.Color.getByDir(TPDirection.values()[dir]), itemFilter);
                         duct.getSettingsInv().populate();
 
@@ -138,6 +139,7 @@ public class LegacyDuctLoader_v4_3_1 extends DuctLoader {
                     int extractConditionInt = ductTag.getInt("ExtractCondition");
                     int extractDirectionInt = ductTag.getInt("ExtractDirection");
 
+                    itemFilter.updateMatcher();
                     ((ExtractionPipe) duct).setItemFilter(itemFilter);
                     ((ExtractionPipe) duct).setExtractAmount(ExtractAmount.values()[extractAmountInt]);
                     ((ExtractionPipe) duct).setExtractCondition(ExtractCondition.values()[extractConditionInt]);
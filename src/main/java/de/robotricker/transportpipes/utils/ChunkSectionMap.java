@@ -0,0 +1,359 @@
+package de.robotricker.transportpipes.utils;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import de.robotricker.transportpipes.location.BlockLocation;
+
+/**
+ * A map from block locations to values which buckets its entries by chunk and chunk section.
+ * <p>
+ * The chunks are stored inside a {@link ConcurrentLongObjectMap}, every chunk holds its non-empty 16x16x16 sections
+ * and every section stores its values inside arrays indexed by the local block coordinates. This makes point lookups
+ * and chunk queries O(1). The layers of a section are only allocated if they contain at least one value.
+ * <p>
+ * Reads are lock-free, writes are synchronized. Iterators are weakly consistent.
+ */
+public class ChunkSectionMap<V> extends AbstractMap<BlockLocation, V> {
+
+    private final ConcurrentLongObjectMap<Column<V>> columns;
+    private final EntrySet entrySet;
+    private volatile int size;
+
+    public ChunkSectionMap() {
+        this.columns = new ConcurrentLongObjectMap<>();
+        this.entrySet = new EntrySet();
+    }
+
+    public V get(int x, int y, int z) {
+        Column<V> column = columns.get(chunkKey(x >> 4, z >> 4));
+        if (column == null) {
+            return null;
+        }
+        Section<V> section = column.getSection(y >> 4);
+        if (section == null) {
+            return null;
+        }
+        AtomicReferenceArray<V> layer = section.layers.get(y & 15);
+        if (layer == null) {
+            return null;
+        }
+        return layer.get(layerIndex(x, z));
+    }
+
+    /**
+     * gets the value at the given packed location, see {@link BlockLocation#toLong()}
+     */
+    public V get(long packedLoc) {
+        return get(BlockLocation.unpackX(packedLoc), BlockLocation.unpackY(packedLoc), BlockLocation.unpackZ(packedLoc));
+    }
+
+    @Override
+    public V get(Object key) {
+        if (!(key instanceof BlockLocation)) {
+            return null;
+        }
+        BlockLocation blockLoc = (BlockLocation) key;
+        return get(blockLoc.getX(), blockLoc.getY(), blockLoc.getZ());
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public synchronized V put(BlockLocation key, V value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        int x = key.getX();
+        int y = key.getY();
+        int z = key.getZ();
+        long chunkKey = chunkKey(x >> 4, z >> 4);
+        Column<V> column = columns.get(chunkKey);
+        if (column == null) {
+            column = new Column<>(x >> 4, z >> 4);
+            columns.put(chunkKey, column);
+        }
+        Section<V> section = column.getSection(y >> 4);
+        if (section == null) {
+            section = new Section<>(y >> 4);
+            column.addSection(section);
+        }
+        AtomicReferenceArray<V> layer = section.layers.get(y & 15);
+        if (layer == null) {
+            layer = new AtomicReferenceArray<>(256);
+            section.layers.set(y & 15, layer);
+        }
+        V oldValue = layer.getAndSet(layerIndex(x, z), value);
+        if (oldValue == null) {
+            section.count++;
+            size++;
+        }
+        return oldValue;
+    }
+
+    @Override
+    public synchronized V remove(Object key) {
+        if (!(key instanceof BlockLocation)) {
+            return null;
+        }
+        BlockLocation blockLoc = (BlockLocation) key;
+        int x = blockLoc.getX();
+        int y = blockLoc.getY();
+        int z = blockLoc.getZ();
+        long chunkKey = chunkKey(x >> 4, z >> 4);
+        Column<V> column = columns.get(chunkKey);
+        if (column == null) {
+            return null;
+        }
+        Section<V> section = column.getSection(y >> 4);
+        if (section == null) {
+            return null;
+        }
+        AtomicReferenceArray<V> layer = section.layers.get(y & 15);
+        if (layer == null) {
+            return null;
+        }
+        V oldValue = layer.getAndSet(layerIndex(x, z), null);
+        if (oldValue != null) {
+            size--;
+            if (--section.count == 0) {
+                column.removeSection(section);
+                if (column.sections.length == 0) {
+                    columns.remove(chunkKey);
+                }
+            }
+        }
+        return oldValue;
+    }
+
+    @Override
+    public synchronized void clear() {
+        columns.clear();
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * all values inside the given chunk
+     */
+    public List<V> getInChunk(int chunkX, int chunkZ) {
+        Column<V> column = columns.get(chunkKey(chunkX, chunkZ));
+        if (column == null) {
+            return Collections.emptyList();
+        }
+        List<V> values = new ArrayList<>();
+        for (Section<V> section : column.sections) {
+            for (int ly = 0; ly < 16; ly++) {
+                AtomicReferenceArray<V> layer = section.layers.get(ly);
+                if (layer == null) {
+                    continue;
+                }
+                for (int i = 0; i < 256; i++) {
+                    V value = layer.get(i);
+                    if (value != null) {
+                        values.add(value);
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public Set<Map.Entry<BlockLocation, V>> entrySet() {
+        return entrySet;
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    private static int layerIndex(int x, int z) {
+        return (z & 15) << 4 | (x & 15);
+    }
+
+    private static class Column<V> {
+
+        private final int chunkX;
+        private final int chunkZ;
+        /**
+         * copy on write, only replaced by the writer
+         */
+        private volatile Section<V>[] sections;
+
+        @SuppressWarnings("unchecked")
+        private Column(int chunkX, int chunkZ) {
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.sections = new Section[0];
+        }
+
+        private Section<V> getSection(int sectionY) {
+            for (Section<V> section : sections) {
+                if (section.sectionY == sectionY) {
+                    return section;
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void addSection(Section<V> section) {
+            Section<V>[] sections = this.sections;
+            Section<V>[] newSections = new Section[sections.length + 1];
+            int i = 0;
+            while (i < sections.length && sections[i].sectionY < section.sectionY) {
+                newSections[i] = sections[i];
+                i++;
+            }
+            newSections[i] = section;
+            System.arraycopy(sections, i, newSections, i + 1, sections.length - i);
+            this.sections = newSections;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void removeSection(Section<V> section) {
+            Section<V>[] sections = this.sections;
+            Section<V>[] newSections = new Section[sections.length - 1];
+            int j = 0;
+            for (Section<V> s : sections) {
+                if (s != section) {
+                    newSections[j++] = s;
+                }
+            }
+            this.sections = newSections;
+        }
+
+    }
+
+    private static class Section<V> {
+
+        private final int sectionY;
+        /**
+         * indexed by the local y coordinate, every layer is indexed by the local z and x coordinates
+         */
+        private final AtomicReferenceArray<AtomicReferenceArray<V>> layers;
+        /**
+         * only accessed by the writer
+         */
+        private int count;
+
+        private Section(int sectionY) {
+            this.sectionY = sectionY;
+            this.layers = new AtomicReferenceArray<>(16);
+        }
+
+    }
+
+    private class EntrySet extends AbstractSet<Map.Entry<BlockLocation, V>> {
+
+        @Override
+        public Iterator<Map.Entry<BlockLocation, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+    }
+
+    private class EntryIterator implements Iterator<Map.Entry<BlockLocation, V>> {
+
+        private final List<Column<V>> columnList;
+        private int columnIndex;
+        private Column<V> column;
+        private Section<V>[] sections;
+        private int sectionIndex;
+        private int slot;
+        private Map.Entry<BlockLocation, V> next;
+        private BlockLocation lastKey;
+
+        private EntryIterator() {
+            this.columnList = columns.values();
+            this.columnIndex = -1;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (true) {
+                if (sections != null && sectionIndex < sections.length) {
+                    Section<V> section = sections[sectionIndex];
+                    while (slot < 4096) {
+                        AtomicReferenceArray<V> layer = section.layers.get(slot >> 8);
+                        if (layer == null) {
+                            slot = (slot & ~255) + 256;
+                            continue;
+                        }
+                        V value = layer.get(slot & 255);
+                        int currentSlot = slot++;
+                        if (value != null) {
+                            BlockLocation blockLoc = new BlockLocation(column.chunkX << 4 | (currentSlot & 15), section.sectionY << 4 | currentSlot >> 8, column.chunkZ << 4 | (currentSlot >> 4 & 15));
+                            next = new SimpleImmutableEntry<>(blockLoc, value);
+                            return;
+                        }
+                    }
+                    sectionIndex++;
+                    slot = 0;
+                    continue;
+                }
+                if (++columnIndex >= columnList.size()) {
+                    return;
+                }
+                column = columnList.get(columnIndex);
+                sections = column.sections;
+                sectionIndex = 0;
+                slot = 0;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<BlockLocation, V> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<BlockLocation, V> entry = next;
+            lastKey = entry.getKey();
+            advance();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            ChunkSectionMap.this.remove(lastKey);
+            lastKey = null;
+        }
+
+    }
+
+}
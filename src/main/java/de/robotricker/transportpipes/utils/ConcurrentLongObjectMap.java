@@ -0,0 +1,183 @@
+package de.robotricker.transportpipes.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An open addressing hash map with primitive long keys.
+ * <p>
+ * Reads never lock and never allocate. Writes are synchronized, so there can only be one writer at a time.
+ * Removed entries only clear their value and keep the key slot until the next rehash, so a concurrent reader never
+ * misses an entry that is moved around. {@link Long#MIN_VALUE} is reserved for empty slots and can't be used as key.
+ */
+public class ConcurrentLongObjectMap<V> {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private volatile Table<V> table;
+    private volatile int size;
+
+    public ConcurrentLongObjectMap() {
+        this(16);
+    }
+
+    public ConcurrentLongObjectMap(int expectedSize) {
+        this.table = new Table<>(tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public V get(long key) {
+        Table<V> table = this.table;
+        int mask = table.keys.length() - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long slotKey = table.keys.get(i);
+            if (slotKey == key) {
+                return table.values.get(i);
+            }
+            if (slotKey == EMPTY) {
+                return null;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    public synchronized V put(long key, V value) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("key " + key + " is reserved");
+        }
+        if (value == null) {
+            return remove(key);
+        }
+        Table<V> table = this.table;
+        int mask = table.keys.length() - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long slotKey = table.keys.get(i);
+            if (slotKey == key) {
+                V oldValue = table.values.getAndSet(i, value);
+                if (oldValue == null) {
+                    size++;
+                }
+                return oldValue;
+            }
+            if (slotKey == EMPTY) {
+                // the value has to be visible before the key
+                table.values.set(i, value);
+                table.keys.set(i, key);
+                table.usedSlots++;
+                size++;
+                if (table.usedSlots * 2 > table.keys.length()) {
+                    rehash();
+                }
+                return null;
+            }
+        }
+    }
+
+    public synchronized V remove(long key) {
+        Table<V> table = this.table;
+        int mask = table.keys.length() - 1;
+        for (int i = mix(key) & mask; ; i = (i + 1) & mask) {
+            long slotKey = table.keys.get(i);
+            if (slotKey == key) {
+                V oldValue = table.values.getAndSet(i, null);
+                if (oldValue != null) {
+                    size--;
+                }
+                return oldValue;
+            }
+            if (slotKey == EMPTY) {
+                return null;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        table = new Table<>(16);
+        size = 0;
+    }
+
+    /**
+     * a snapshot of all values of this map
+     */
+    public List<V> values() {
+        Table<V> table = this.table;
+        List<V> values = new ArrayList<>(size);
+        for (int i = 0; i < table.values.length(); i++) {
+            V value = table.values.get(i);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * builds a new table without the removed slots and publishes it. Readers which still use the old table see a
+     * consistent state because the old table is not modified anymore.
+     */
+    private void rehash() {
+        Table<V> oldTable = this.table;
+        Table<V> newTable = new Table<>(tableSizeFor(size));
+        int mask = newTable.keys.length() - 1;
+        for (int i = 0; i < oldTable.keys.length(); i++) {
+            V value = oldTable.values.get(i);
+            if (value == null) {
+                continue;
+            }
+            long key = oldTable.keys.get(i);
+            int j = mix(key) & mask;
+            while (newTable.keys.get(j) != EMPTY) {
+                j = (j + 1) & mask;
+            }
+            newTable.values.set(j, value);
+            newTable.keys.set(j, key);
+            newTable.usedSlots++;
+        }
+        this.table = newTable;
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity < expectedSize * 4 && capacity < (1 << 30)) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static class Table<V> {
+
+        private final AtomicLongArray keys;
+        private final AtomicReferenceArray<V> values;
+        /**
+         * only accessed by the writer
+         */
+        private int usedSlots;
+
+        private Table(int capacity) {
+            this.keys = new AtomicLongArray(capacity);
+            this.values = new AtomicReferenceArray<>(capacity);
+            for (int i = 0; i < capacity; i++) {
+                keys.set(i, EMPTY);
+            }
+        }
+
+    }
+
+}
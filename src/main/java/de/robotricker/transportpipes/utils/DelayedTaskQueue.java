@@ -0,0 +1,136 @@
+package de.robotricker.transportpipes.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free multi producer single consumer queue of tasks which have to run at a given tick.
+ * <p>
+ * Producers push their tasks onto a lock-free stack. The consumer takes the whole stack at once, sorts the tasks into
+ * buckets keyed by their target tick and runs the bucket of the current tick, so a tick only costs O(due tasks).
+ * Tasks of the same tick run in the order they were queued.
+ */
+public class DelayedTaskQueue {
+
+    private final AtomicReference<Node> incoming;
+    /**
+     * only accessed by the consumer
+     */
+    private final LongObjectHashMap<List<Node>> buckets;
+    private volatile long currentTick;
+
+    private final LongAdder queuedTasks;
+    /**
+     * only written by the consumer
+     */
+    private volatile long executedTasks;
+    /**
+     * only written by the consumer
+     */
+    private volatile long lateTasks;
+
+    public DelayedTaskQueue() {
+        this.incoming = new AtomicReference<>();
+        this.buckets = new LongObjectHashMap<>();
+        this.queuedTasks = new LongAdder();
+    }
+
+    /**
+     * THREAD-SAFE queues the given task to run in the given amount of ticks (at least 1)
+     */
+    public void add(Runnable task, long delay) {
+        Node node = new Node(task, currentTick + Math.max(1, delay));
+        Node head;
+        do {
+            head = incoming.get();
+            node.next = head;
+        } while (!incoming.compareAndSet(head, node));
+        queuedTasks.increment();
+    }
+
+    /**
+     * advances the queue by one tick and runs all tasks which are due.
+     * Has to be called once per tick by the consumer thread.
+     */
+    public void runDueTasks() {
+        long tick = currentTick + 1;
+        currentTick = tick;
+
+        // the stack holds the newest task first, so it is reversed to keep the queue order
+        Node node = incoming.getAndSet(null);
+        Node reversed = null;
+        while (node != null) {
+            Node next = node.next;
+            node.next = reversed;
+            reversed = node;
+            node = next;
+        }
+        Node next;
+        for (node = reversed; node != null; node = next) {
+            // the buckets keep the nodes, so they must not hold on to the following ones
+            next = node.next;
+            node.next = null;
+            // tasks queued while the previous tick was running its tasks are due now, but late
+            long bucketTick = Math.max(node.targetTick, tick);
+            List<Node> bucket = buckets.get(bucketTick);
+            if (bucket == null) {
+                bucket = new ArrayList<>();
+                buckets.put(bucketTick, bucket);
+            }
+            bucket.add(node);
+        }
+
+        List<Node> dueTasks = buckets.remove(tick);
+        if (dueTasks == null) {
+            return;
+        }
+        for (Node dueTask : dueTasks) {
+            executedTasks++;
+            if (tick > dueTask.targetTick) {
+                lateTasks++;
+            }
+            dueTask.task.run();
+        }
+    }
+
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * the amount of tasks which were queued so far
+     */
+    public long getQueuedTaskCount() {
+        return queuedTasks.sum();
+    }
+
+    /**
+     * the amount of tasks which were run so far
+     */
+    public long getExecutedTaskCount() {
+        return executedTasks;
+    }
+
+    /**
+     * the amount of tasks which were run after their target tick
+     */
+    public long getLateTaskCount() {
+        return lateTasks;
+    }
+
+    private static class Node {
+
+        private final Runnable task;
+        private final long targetTick;
+        private Node next;
+
+        private Node(Runnable task, long targetTick) {
+            this.task = task;
+            this.targetTick = targetTick;
+        }
+
+    }
+
+}
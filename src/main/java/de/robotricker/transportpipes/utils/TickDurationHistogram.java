@@ -0,0 +1,71 @@
+package de.robotricker.transportpipes.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts tick durations in fixed buckets. Written by the tick thread, readable from any thread.
+ */
+public class TickDurationHistogram {
+
+    /**
+     * the exclusive upper bounds of the buckets in milliseconds, the last bucket holds everything above
+     */
+    private static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000};
+
+    private final AtomicLongArray counts;
+    private volatile long maxDurationNanos;
+    private volatile long totalDurationNanos;
+    private volatile long tickCount;
+
+    public TickDurationHistogram() {
+        this.counts = new AtomicLongArray(BUCKET_BOUNDS_MILLIS.length + 1);
+    }
+
+    /**
+     * has to be called by the tick thread only
+     */
+    public void record(long durationNanos) {
+        int bucket = 0;
+        while (bucket < BUCKET_BOUNDS_MILLIS.length && durationNanos >= BUCKET_BOUNDS_MILLIS[bucket] * 1_000_000L) {
+            bucket++;
+        }
+        counts.incrementAndGet(bucket);
+        if (durationNanos > maxDurationNanos) {
+            maxDurationNanos = durationNanos;
+        }
+        totalDurationNanos += durationNanos;
+        tickCount++;
+    }
+
+    /**
+     * the upper bounds of the buckets in milliseconds, the bucket after the last bound is open
+     */
+    public long[] getBucketBoundsMillis() {
+        return BUCKET_BOUNDS_MILLIS.clone();
+    }
+
+    /**
+     * the amount of ticks per bucket, one more entry than {@link #getBucketBoundsMillis()}
+     */
+    public long[] getCounts() {
+        long[] snapshot = new long[counts.length()];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    public long getMaxDurationNanos() {
+        return maxDurationNanos;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public double getAverageDurationMillis() {
+        long ticks = tickCount;
+        return ticks == 0 ? 0d : totalDurationNanos / (double) ticks / 1_000_000d;
+    }
+
+}